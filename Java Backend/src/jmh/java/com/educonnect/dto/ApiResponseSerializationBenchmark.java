@@ -0,0 +1,44 @@
+package com.educonnect.dto;
+
+import com.educonnect.services.BenchmarkData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a book list response, configured like the
+ * ObjectMapper Spring Boot builds for the web layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+    
+    @Param({"1", "20", "100", "1000"})
+    private int size;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<BookDTO>> response;
+    
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<BookDTO> books = new ArrayList<>(size);
+        for (long i = 1; i <= size; i++) {
+            books.add(BenchmarkData.bookDTO(i));
+        }
+        response = ApiResponse.success(books);
+    }
+    
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
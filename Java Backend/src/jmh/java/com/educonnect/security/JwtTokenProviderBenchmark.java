@@ -0,0 +1,67 @@
+package com.educonnect.security;
+
+import com.educonnect.models.User;
+import com.educonnect.services.BenchmarkData;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and the verification done by JwtAuthenticationFilter
+ * on every authenticated request, with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+    
+    private JwtTokenProvider tokenProvider;
+    private UserPrincipal user;
+    private String token;
+    // Cache size 0: every call parses and verifies the token
+    private JwtTokenProvider uncachedProvider;
+    
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(
+                "benchmark-secret-key-for-jwt-token-generation-must-be-very-long-and-secure",
+                86400000L, 10000, new SimpleMeterRegistry());
+        User publisher = BenchmarkData.publisher();
+        publisher.setId(1L);
+        user = UserPrincipal.from(publisher);
+        token = tokenProvider.generateToken(user);
+        uncachedProvider = new JwtTokenProvider(
+                "benchmark-secret-key-for-jwt-token-generation-must-be-very-long-and-secure",
+                86400000L, 0, new SimpleMeterRegistry());
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(user);
+    }
+    
+    @Benchmark
+    public Claims verify() {
+        return tokenProvider.verify(token);
+    }
+    
+    @Benchmark
+    public Claims verifyUncached() {
+        return uncachedProvider.verify(token);
+    }
+    
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+    
+    @Benchmark
+    public String getEmailFromToken() {
+        return tokenProvider.getEmailFromToken(token);
+    }
+}
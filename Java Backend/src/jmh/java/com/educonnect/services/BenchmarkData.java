@@ -0,0 +1,75 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.BookDTO;
+import com.educonnect.models.Book;
+import com.educonnect.models.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Synthetic catalog rows shared by the benchmarks.
+ */
+public final class BenchmarkData {
+    
+    private static final String[] SUBJECTS = {"Mathematics", "English", "Science", "History", "Geography"};
+    private static final String[] GRADES = {"Grade 1", "Grade 2", "Grade 3", "Grade 4", "Grade 5", "Grade 6"};
+    private static final String[] AUTHORS = {"John Smith", "Jane Doe", "Amina Otieno", "Peter Kamau"};
+    
+    private static final BookService MAPPER = bookMapper();
+    
+    private BenchmarkData() {
+    }
+    
+    /**
+     * A BookService for mapToDTO only, which uses none of its collaborators.
+     * Built through its constructor, so a signature change fails the build.
+     */
+    public static BookService bookMapper() {
+        return new BookService(null, null, null, null, null, null, null, null, null);
+    }
+    
+    /**
+     * A UserService for mapToDTO only, which uses none of its collaborators.
+     */
+    public static UserService userMapper() {
+        return new UserService(null, null, null, null);
+    }
+    
+    public static User publisher() {
+        User user = new User();
+        user.setName("Benchmark Publisher");
+        user.setEmail("publisher@bench.local");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3xvKJ1qJYkQy0Yx9tZp6Z8a");
+        user.setRole(User.UserRole.PUBLISHER);
+        user.setStatus(User.UserStatus.APPROVED);
+        user.setOrganizationName("Bench Books");
+        user.setPhone("+254700000000");
+        user.setDocumentUrl("https://example.com/docs/license.pdf");
+        return user;
+    }
+    
+    public static Book book(long n) {
+        String subject = SUBJECTS[(int) (n % SUBJECTS.length)];
+        String grade = GRADES[(int) (n % GRADES.length)];
+        Book book = new Book();
+        book.setId(n);
+        book.setTitle(subject + " for " + grade + " Volume " + n);
+        book.setGrade(grade);
+        book.setSubject(subject);
+        book.setAuthor(AUTHORS[(int) (n % AUTHORS.length)]);
+        book.setIsbn("978-" + String.format("%09d", n));
+        book.setPrice(BigDecimal.valueOf(100 + n % 2000));
+        book.setPublisherId(1L);
+        book.setPublisherName("Bench Books");
+        book.setDescription("A course book covering the " + grade + " " + subject + " syllabus. ".repeat(10));
+        book.setCoverImage("https://example.com/covers/" + n + ".jpg");
+        book.setCreatedAt(LocalDateTime.now());
+        book.setUpdatedAt(LocalDateTime.now());
+        return book;
+    }
+    
+    public static BookDTO bookDTO(long n) {
+        return MAPPER.mapToDTO(book(n));
+    }
+}
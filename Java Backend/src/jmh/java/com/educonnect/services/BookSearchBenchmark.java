@@ -0,0 +1,89 @@
+package com.educonnect.services;
+
+import com.educonnect.EduConnectApplication;
+import com.educonnect.dto.BookSummaryDTO;
+import com.educonnect.dto.CursorPage;
+import com.educonnect.models.Book;
+import com.educonnect.models.User;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.repositories.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catalog search and list paths against an embedded H2 database (MySQL mode)
+ * seeded with {@code books} rows. Boots the real application context without
+ * the web layer, so the in-memory indexes and caches are the production ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+    
+    @Param({"10000"})
+    private int books;
+    
+    @Param({"mathematics", "grade 5", "sci"})
+    private String keyword;
+    
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EduConnectApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments, so they take precedence over application.properties
+                .run(
+                        "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.educonnect=INFO");
+        
+        User publisher = context.getBean(UserRepository.class).save(BenchmarkData.publisher());
+        BookRepository bookRepository = context.getBean(BookRepository.class);
+        List<Book> batch = new ArrayList<>();
+        for (long i = 1; i <= books; i++) {
+            Book book = BenchmarkData.book(i);
+            book.setId(null);
+            book.setPublisherId(publisher.getId());
+            batch.add(book);
+            if (batch.size() == 1000) {
+                bookRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        bookRepository.saveAll(batch);
+        
+        // Seeded rows bypass BookChangedEvent, so build the indexes from the database again
+        context.getBean(BookSearchIndex.class).rebuild();
+        bookService = context.getBean(BookService.class);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public CursorPage<BookSummaryDTO> searchBooks() {
+        return bookService.searchBooks(keyword, null, 20);
+    }
+    
+    @Benchmark
+    public CursorPage<BookSummaryDTO> listFirstPage() {
+        return bookService.getAllBooks(null, 20);
+    }
+}
@@ -0,0 +1,47 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.BookDTO;
+import com.educonnect.dto.UserDTO;
+import com.educonnect.models.Book;
+import com.educonnect.models.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping done for every book and user returned by the API.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+    
+    private BookService bookService;
+    private UserService userService;
+    private Book book;
+    private User user;
+    
+    @Setup
+    public void setUp() {
+        bookService = BenchmarkData.bookMapper();
+        userService = BenchmarkData.userMapper();
+        book = BenchmarkData.book(1L);
+        user = BenchmarkData.publisher();
+        user.setId(1L);
+        user.setCreatedAt(LocalDateTime.now());
+    }
+    
+    @Benchmark
+    public BookDTO bookMapToDTO() {
+        return bookService.mapToDTO(book);
+    }
+    
+    @Benchmark
+    public UserDTO userMapToDTO() {
+        return userService.mapToDTO(user);
+    }
+}
@@ -0,0 +1,82 @@
+package com.educonnect.services;
+
+import com.educonnect.EduConnectApplication;
+import com.educonnect.models.Book;
+import com.educonnect.models.User;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.repositories.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Many threads reserving one unit at a time of the same book, as at the
+ * start of term when every school orders the same textbook. Compare one
+ * stripe (a single hot row) with several. The trial fails if the units left
+ * plus the units reserved do not add up to the starting stock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class StockReservationBenchmark {
+    
+    private static final int INITIAL_STOCK = 1_000_000_000;
+    
+    @Param({"1", "8"})
+    private int stripes;
+    
+    private ConfigurableApplicationContext context;
+    private StockService stockService;
+    private Long bookId;
+    private final LongAdder reserved = new LongAdder();
+    
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EduConnectApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        // Wait for row locks instead of failing after H2's default of one second
+                        "--spring.datasource.url=jdbc:h2:mem:stock;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.hikari.maximum-pool-size=64",
+                        "--spring.jpa.show-sql=false",
+                        "--catalog.stock.stripes=" + stripes,
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.educonnect=INFO");
+        
+        User publisher = context.getBean(UserRepository.class).save(BenchmarkData.publisher());
+        Book book = BenchmarkData.book(1);
+        book.setId(null);
+        book.setPublisherId(publisher.getId());
+        bookId = context.getBean(BookRepository.class).save(book).getId();
+        
+        stockService = context.getBean(StockService.class);
+        stockService.setStock(bookId, INITIAL_STOCK);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        long left = stockService.getAvailable(bookId);
+        context.close();
+        if (left + reserved.sum() != INITIAL_STOCK) {
+            throw new IllegalStateException("Stock does not add up: " + left + " left + " + reserved.sum()
+                    + " reserved != " + INITIAL_STOCK);
+        }
+    }
+    
+    @Benchmark
+    public void reserveOne() {
+        stockService.reserve(bookId, 1);
+        reserved.increment();
+    }
+}
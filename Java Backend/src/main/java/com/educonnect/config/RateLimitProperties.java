@@ -0,0 +1,45 @@
+package com.educonnect.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Route policies for RateLimitFilter, bound from {@code rate-limit.*}.
+ * Policies are checked in order and the first match applies.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    
+    private boolean enabled = true;
+    // Buckets untouched for this long are dropped
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private long maxKeys = 100_000;
+    private List<Policy> policies = new ArrayList<>();
+    
+    @Data
+    public static class Policy {
+        private String name;
+        // Ant-style pattern relative to the context path, e.g. /auth/login or /books/**
+        private String path;
+        // Empty means any method
+        private List<String> methods = new ArrayList<>();
+        private KeyType key = KeyType.IP;
+        // Burst size; the bucket refills completely over one period
+        private int capacity;
+        private Duration period;
+    }
+    
+    public enum KeyType {
+        // Client address
+        IP,
+        // User id from a valid bearer token (the email for tokens issued without one), falling back to the client address
+        PRINCIPAL
+    }
+}
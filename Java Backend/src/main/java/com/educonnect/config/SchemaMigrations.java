@@ -0,0 +1,123 @@
+package com.educonnect.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versioned schema migrations. Scripts named V{version}__{description}.sql in
+ * classpath:db/migration are applied once each, in version order, and
+ * recorded in schema_migrations with a checksum; editing a script that has
+ * already run stops startup. Runs before JPA and JdbcTemplate are created
+ * (see SchemaMigrationsDetector), and Hibernate only validates the result.
+ * The naming follows Flyway's, so the scripts can move to it unchanged.
+ */
+@Slf4j
+@Component
+public class SchemaMigrations implements InitializingBean {
+    
+    private static final String LOCATION = "classpath:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String HISTORY_DDL =
+            "CREATE TABLE IF NOT EXISTS schema_migrations (version INTEGER NOT NULL, description VARCHAR(200) NOT NULL, " +
+            "checksum VARCHAR(64) NOT NULL, installed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (version))";
+    
+    private final DataSource dataSource;
+    private final boolean enabled;
+    
+    public SchemaMigrations(DataSource dataSource,
+                            @Value("${schema.migrations.enabled}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+    
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!enabled) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute(HISTORY_DDL);
+        Map<Integer, String> applied = new HashMap<>();
+        jdbcTemplate.query("SELECT version, checksum FROM schema_migrations",
+                rs -> { applied.put(rs.getInt(1), rs.getString(2)); });
+        
+        for (Migration migration : findMigrations()) {
+            String checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (!checksum.equals(migration.checksum)) {
+                    throw new IllegalStateException("Migration V" + migration.version
+                            + " has changed since it was applied; add a new migration instead");
+                }
+                continue;
+            }
+            log.info("Applying schema migration V{} ({})", migration.version, migration.description);
+            try (Connection connection = dataSource.getConnection()) {
+                ScriptUtils.executeSqlScript(connection, migration.script);
+            }
+            jdbcTemplate.update("INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)",
+                    migration.version, migration.description, migration.checksum);
+        }
+    }
+    
+    private static List<Migration> findMigrations() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        for (Resource script : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher matcher = FILE_NAME.matcher(script.getFilename());
+            if (!matcher.matches()) {
+                throw new IllegalStateException("Unexpected migration file name: " + script.getFilename());
+            }
+            migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                    script, checksum(script)));
+        }
+        migrations.sort(Comparator.comparingInt(migration -> migration.version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new IllegalStateException("Two migrations with version " + migrations.get(i).version);
+            }
+        }
+        return migrations;
+    }
+    
+    private static String checksum(Resource script) throws IOException {
+        try (InputStream in = script.getInputStream()) {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(in.readAllBytes()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final Resource script;
+        private final String checksum;
+        
+        private Migration(int version, String description, Resource script, String checksum) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.educonnect.config;
+
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+
+import java.util.Set;
+
+/**
+ * Tells Spring Boot that SchemaMigrations initializes the database, so the
+ * EntityManagerFactory, JdbcTemplate and other database users are created
+ * after it. Registered in META-INF/spring.factories.
+ */
+public class SchemaMigrationsDetector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+    
+    @Override
+    protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+        return Set.of(SchemaMigrations.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.educonnect.controllers;
+
+import com.educonnect.dto.ApiResponse;
+import com.educonnect.dto.OrderAnalyticsDTO;
+import com.educonnect.models.OrderRollup;
+import com.educonnect.models.User;
+import com.educonnect.security.CurrentUser;
+import com.educonnect.security.UserPrincipal;
+import com.educonnect.services.OrderRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final OrderRollupService orderRollupService;
+    
+    /**
+     * Admins see the whole shop, or one school or publisher when asked;
+     * schools and publishers only ever see their own orders.
+     */
+    @GetMapping("/orders")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse<OrderAnalyticsDTO>> getOrderAnalytics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long schoolId,
+            @RequestParam(required = false) Long publisherId,
+            @CurrentUser UserPrincipal user) {
+        OrderRollup.Dimension dimension;
+        Long dimensionId;
+        if (user.isAdmin()) {
+            if (schoolId != null && publisherId != null) {
+                throw new IllegalArgumentException("Filter by school or by publisher, not both");
+            }
+            dimension = schoolId != null ? OrderRollup.Dimension.SCHOOL
+                    : publisherId != null ? OrderRollup.Dimension.PUBLISHER : OrderRollup.Dimension.ALL;
+            dimensionId = schoolId != null ? schoolId : publisherId;
+        } else {
+            dimension = user.getRole() == User.UserRole.SCHOOL ? OrderRollup.Dimension.SCHOOL : OrderRollup.Dimension.PUBLISHER;
+            Long requested = dimension == OrderRollup.Dimension.SCHOOL ? schoolId : publisherId;
+            if ((requested != null && !requested.equals(user.getId()))
+                    || (dimension == OrderRollup.Dimension.SCHOOL ? publisherId : schoolId) != null) {
+                throw new AccessDeniedException("You can only view analytics for your own orders");
+            }
+            dimensionId = user.getId();
+        }
+        
+        OrderAnalyticsDTO analytics = orderRollupService.getOrderAnalytics(dimension, dimensionId, from, to);
+        return ResponseEntity.ok(ApiResponse.success(analytics));
+    }
+}
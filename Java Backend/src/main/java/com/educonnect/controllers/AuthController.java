@@ -4,6 +4,7 @@ import com.educonnect.dto.ApiResponse;
 import com.educonnect.dto.AuthResponse;
 import com.educonnect.dto.LoginRequest;
 import com.educonnect.dto.RegisterRequest;
+import com.educonnect.exceptions.ServiceBusyException;
 import com.educonnect.services.AuthService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -35,6 +36,9 @@ public class AuthController {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(ApiResponse.success("Login successful", response));
+        } catch (ServiceBusyException e) {
+            // Shed load is not a credential failure; let the global handler answer 503
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ApiResponse.error("Invalid credentials"));
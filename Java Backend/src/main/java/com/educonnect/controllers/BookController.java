@@ -1,20 +1,37 @@
 package com.educonnect.controllers;
 
 import com.educonnect.dto.ApiResponse;
+import com.educonnect.dto.BookBrowseResponse;
 import com.educonnect.dto.BookDTO;
+import com.educonnect.dto.BookImportReport;
+import com.educonnect.dto.BookStockDTO;
+import com.educonnect.dto.BookSuggestion;
+import com.educonnect.dto.BookSummaryDTO;
 import com.educonnect.dto.CreateBookRequest;
-import com.educonnect.models.User;
+import com.educonnect.dto.CursorPage;
+import com.educonnect.dto.ResourceVersion;
+import com.educonnect.dto.TopSellingBookDTO;
+import com.educonnect.dto.UpdateStockRequest;
+import com.educonnect.security.CurrentUser;
+import com.educonnect.security.UserPrincipal;
+import com.educonnect.services.BookImportService;
 import com.educonnect.services.BookService;
-import com.educonnect.services.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/books")
@@ -22,18 +39,47 @@ import java.util.List;
 public class BookController {
     
     private final BookService bookService;
-    private final UserService userService;
+    private final BookImportService bookImportService;
+    
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_TOP_SELLING = 50;
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<BookDTO>>> getAllBooks() {
-        List<BookDTO> books = bookService.getAllBooks();
+    public ResponseEntity<ApiResponse<CursorPage<BookSummaryDTO>>> getAllBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<BookSummaryDTO> books = bookService.getAllBooks(cursor, CursorPage.clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
+    @GetMapping("/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportBooks(@RequestParam(defaultValue = "ndjson") String format) {
+        BookService.ExportFormat exportFormat;
+        try {
+            exportFormat = BookService.ExportFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        
+        boolean csv = exportFormat == BookService.ExportFormat.CSV;
+        StreamingResponseBody body = out -> bookService.exportBooks(out, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(csv ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=books." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<BookDTO>> getBookById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<BookDTO>> getBookById(@PathVariable Long id, WebRequest webRequest) {
         try {
             BookDTO book = bookService.getBookById(id);
+            ResourceVersion version = new ResourceVersion(book.getId(), book.getVersion(), book.getUpdatedAt());
+            // Sets ETag/Last-Modified and, when the client copy is current, a 304 with no body
+            if (webRequest.checkNotModified(version.eTag("book"), version.lastModifiedMillis())) {
+                return null;
+            }
             return ResponseEntity.ok(ApiResponse.success(book));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -42,18 +88,51 @@ public class BookController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<BookDTO>>> searchBooks(@RequestParam String keyword) {
-        List<BookDTO> books = bookService.searchBooks(keyword);
+    public ResponseEntity<ApiResponse<CursorPage<BookSummaryDTO>>> searchBooks(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<BookSummaryDTO> books = bookService.searchBooks(keyword, cursor, CursorPage.clampSize(size));
+        return ResponseEntity.ok(ApiResponse.success(books));
+    }
+    
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<BookSuggestion>>> suggestBooks(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<BookSuggestion> suggestions = bookService.suggestBooks(prefix, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+        return ResponseEntity.ok(ApiResponse.success(suggestions));
+    }
+    
+    @GetMapping("/top-selling")
+    public ResponseEntity<ApiResponse<List<TopSellingBookDTO>>> getTopSellingBooks(
+            @RequestParam(required = false) String grade,
+            @RequestParam(required = false) String subject,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<TopSellingBookDTO> books = bookService.getTopSellingBooks(grade, subject, Math.min(Math.max(limit, 1), MAX_TOP_SELLING));
         return ResponseEntity.ok(ApiResponse.success(books));
     }
     
+    @GetMapping("/browse")
+    public ResponseEntity<ApiResponse<BookBrowseResponse>> browseBooks(
+            @RequestParam(required = false) String grade,
+            @RequestParam(required = false) String subject,
+            @RequestParam(required = false) Long publisherId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        BookBrowseResponse result = bookService.browseBooks(grade, subject, publisherId, minPrice, maxPrice,
+                cursor, CursorPage.clampSize(size));
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+    
     @PostMapping
     @PreAuthorize("hasAnyRole('PUBLISHER', 'ADMIN')")
     public ResponseEntity<ApiResponse<BookDTO>> createBook(
             @Valid @RequestBody CreateBookRequest request,
-            Authentication authentication) {
+            @CurrentUser UserPrincipal user) {
         try {
-            User user = userService.findByEmail(authentication.getName());
             BookDTO book = bookService.createBook(request, user);
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Book created successfully", book));
@@ -63,14 +142,25 @@ public class BookController {
         }
     }
     
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasAnyRole('PUBLISHER', 'ADMIN')")
+    public ResponseEntity<ApiResponse<BookImportReport>> importBooks(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            @CurrentUser UserPrincipal user) throws IOException {
+        BookImportService.ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(TEXT_CSV)
+                ? BookImportService.ImportFormat.CSV : BookImportService.ImportFormat.NDJSON;
+        BookImportReport report = bookImportService.importBooks(body, format, user);
+        return ResponseEntity.ok(ApiResponse.success("Imported " + report.getCreated() + " books", report));
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('PUBLISHER', 'ADMIN')")
     public ResponseEntity<ApiResponse<BookDTO>> updateBook(
             @PathVariable Long id,
             @Valid @RequestBody CreateBookRequest request,
-            Authentication authentication) {
+            @CurrentUser UserPrincipal user) {
         try {
-            User user = userService.findByEmail(authentication.getName());
             BookDTO book = bookService.updateBook(id, request, user);
             return ResponseEntity.ok(ApiResponse.success("Book updated successfully", book));
         } catch (Exception e) {
@@ -79,6 +169,21 @@ public class BookController {
         }
     }
     
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<ApiResponse<BookStockDTO>> getStock(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(bookService.getStock(id)));
+    }
+    
+    @PutMapping("/{id}/stock")
+    @PreAuthorize("hasAnyRole('PUBLISHER', 'ADMIN')")
+    public ResponseEntity<ApiResponse<BookStockDTO>> updateStock(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateStockRequest request,
+            @CurrentUser UserPrincipal user) {
+        BookStockDTO stock = bookService.updateStock(id, request.getQuantity(), user);
+        return ResponseEntity.ok(ApiResponse.success("Stock updated", stock));
+    }
+    
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Void>> deleteBook(@PathVariable Long id) {
@@ -93,8 +198,11 @@ public class BookController {
     
     @GetMapping("/publisher/{publisherId}")
     @PreAuthorize("hasAnyRole('PUBLISHER', 'ADMIN')")
-    public ResponseEntity<ApiResponse<List<BookDTO>>> getPublisherBooks(@PathVariable Long publisherId) {
-        List<BookDTO> books = bookService.getBooksByPublisher(publisherId);
+    public ResponseEntity<ApiResponse<CursorPage<BookSummaryDTO>>> getPublisherBooks(
+            @PathVariable Long publisherId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<BookSummaryDTO> books = bookService.getBooksByPublisher(publisherId, cursor, CursorPage.clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(books));
     }
 }
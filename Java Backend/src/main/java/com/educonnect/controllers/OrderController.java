@@ -1,7 +1,21 @@
 package com.educonnect.controllers;
 
 import com.educonnect.dto.ApiResponse;
+import com.educonnect.dto.CreateOrderRequest;
+import com.educonnect.dto.CursorPage;
+import com.educonnect.dto.OrderDTO;
+import com.educonnect.dto.PublisherOrderDTO;
+import com.educonnect.dto.QuoteDTO;
+import com.educonnect.dto.QuoteRequest;
+import com.educonnect.models.Order;
+import com.educonnect.security.CurrentUser;
+import com.educonnect.security.UserPrincipal;
+import com.educonnect.services.IdempotencyStore;
+import com.educonnect.services.OrderService;
+import com.educonnect.services.QuoteService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -14,8 +28,9 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class OrderController {
     
-    // Note: This is a simplified controller for demonstration
-    // Full order service implementation would follow the same pattern as User and Book services
+    private final OrderService orderService;
+    private final QuoteService quoteService;
+    private final IdempotencyStore idempotencyStore;
     
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -25,29 +40,79 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
     
+    @GetMapping("/publisher")
+    @PreAuthorize("hasRole('PUBLISHER')")
+    public ResponseEntity<ApiResponse<CursorPage<PublisherOrderDTO>>> getPublisherOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @CurrentUser UserPrincipal user) {
+        CursorPage<PublisherOrderDTO> orders = orderService.getPublisherOrders(user.getId(), cursor, CursorPage.clampSize(size));
+        return ResponseEntity.ok(ApiResponse.success(orders));
+    }
+    
     @PostMapping
     @PreAuthorize("hasRole('SCHOOL')")
-    public ResponseEntity<ApiResponse<Map<String, String>>> createOrder(@RequestBody Map<String, Object> request) {
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Order created successfully");
-        response.put("orderId", "123");
-        return ResponseEntity.ok(ApiResponse.success("Order created", response));
+    public ResponseEntity<ApiResponse<OrderDTO>> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @CurrentUser UserPrincipal user) {
+        return idempotencyStore.execute(scope(user, "POST /orders"), idempotencyKey, request, () -> {
+            OrderDTO order = orderService.createOrder(request, user);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Order created", order));
+        });
+    }
+    
+    @PostMapping("/quote")
+    @PreAuthorize("hasRole('SCHOOL')")
+    public ResponseEntity<ApiResponse<QuoteDTO>> createQuote(
+            @Valid @RequestBody QuoteRequest request,
+            @CurrentUser UserPrincipal user) {
+        return ResponseEntity.ok(ApiResponse.success(quoteService.createQuote(request, user)));
     }
     
     @PatchMapping("/{id}/status")
     @PreAuthorize("hasAnyRole('ADMIN', 'PUBLISHER')")
-    public ResponseEntity<ApiResponse<Map<String, String>>> updateOrderStatus(
+    public ResponseEntity<ApiResponse<OrderDTO>> updateOrderStatus(
             @PathVariable Long id,
-            @RequestBody Map<String, String> request) {
-        Map<String, String> response = new HashMap<>();
-        response.put("message", "Order status updated");
-        response.put("orderId", id.toString());
-        response.put("status", request.get("status"));
-        return ResponseEntity.ok(ApiResponse.success(response));
+            @RequestBody Map<String, String> request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @CurrentUser UserPrincipal user) {
+        Order.OrderStatus status;
+        try {
+            status = Order.OrderStatus.valueOf(request.get("status").toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Invalid order status: " + request.get("status")));
+        }
+        return idempotencyStore.execute(scope(user, "PATCH /orders/" + id + "/status"), idempotencyKey, request, () -> {
+            OrderDTO order = orderService.updateOrderStatus(id, status, user);
+            return ResponseEntity.ok(ApiResponse.success("Order status updated", order));
+        });
+    }
+    
+    @PatchMapping("/{id}/payment-status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderDTO>> updatePaymentStatus(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
+            @CurrentUser UserPrincipal user) {
+        Order.PaymentStatus paymentStatus;
+        try {
+            paymentStatus = Order.PaymentStatus.valueOf(request.get("paymentStatus").toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Invalid payment status: " + request.get("paymentStatus")));
+        }
+        return idempotencyStore.execute(scope(user, "PATCH /orders/" + id + "/payment-status"), idempotencyKey, request, () -> {
+            OrderDTO order = orderService.updatePaymentStatus(id, paymentStatus);
+            return ResponseEntity.ok(ApiResponse.success("Payment status updated", order));
+        });
+    }
+    
+    // Keys are only meaningful per user and per operation
+    private static String scope(UserPrincipal user, String operation) {
+        return user.getId() + " " + operation;
     }
 }
-
-
-
-
-
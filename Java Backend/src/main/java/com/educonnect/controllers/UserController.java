@@ -1,7 +1,10 @@
 package com.educonnect.controllers;
 
 import com.educonnect.dto.ApiResponse;
+import com.educonnect.dto.CursorPage;
+import com.educonnect.dto.ResourceVersion;
 import com.educonnect.dto.UserDTO;
+import com.educonnect.dto.UserSummaryDTO;
 import com.educonnect.models.User;
 import com.educonnect.services.UserService;
 import lombok.RequiredArgsConstructor;
@@ -9,8 +12,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,15 +25,22 @@ public class UserController {
     
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
+    public ResponseEntity<ApiResponse<CursorPage<UserSummaryDTO>>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserSummaryDTO> users = userService.getAllUsers(cursor, CursorPage.clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(users));
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<UserDTO>> getUserById(@PathVariable Long id) {
+    public ResponseEntity<ApiResponse<UserDTO>> getUserById(@PathVariable Long id, WebRequest webRequest) {
         try {
+            // Compare against the stored version first so unchanged users are never loaded or mapped
+            ResourceVersion version = userService.getUserVersion(id);
+            if (webRequest.checkNotModified(version.eTag("user"), version.lastModifiedMillis())) {
+                return null;
+            }
             UserDTO user = userService.getUserById(id);
             return ResponseEntity.ok(ApiResponse.success(user));
         } catch (Exception e) {
@@ -41,14 +51,18 @@ public class UserController {
     
     @GetMapping("/publishers")
     @PreAuthorize("hasAnyRole('ADMIN', 'SCHOOL')")
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getPublishers() {
-        List<UserDTO> publishers = userService.getApprovedPublishers();
+    public ResponseEntity<ApiResponse<CursorPage<UserSummaryDTO>>> getPublishers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserSummaryDTO> publishers = userService.getApprovedPublishers(cursor, CursorPage.clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(publishers));
     }
     
     @GetMapping("/publishers/public")
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getPublishersPublic() {
-        List<UserDTO> publishers = userService.getApprovedPublishers();
+    public ResponseEntity<ApiResponse<CursorPage<UserSummaryDTO>>> getPublishersPublic(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<UserSummaryDTO> publishers = userService.getApprovedPublishers(cursor, CursorPage.clampSize(size));
         return ResponseEntity.ok(ApiResponse.success(publishers));
     }
     
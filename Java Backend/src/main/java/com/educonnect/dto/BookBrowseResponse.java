@@ -0,0 +1,15 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class BookBrowseResponse {
+    private CursorPage<BookSummaryDTO> page;
+    private int totalMatches;
+    // facet name -> (value -> number of matching books)
+    private Map<String, Map<String, Integer>> facets;
+}
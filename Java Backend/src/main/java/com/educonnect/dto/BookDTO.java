@@ -19,6 +19,8 @@ public class BookDTO {
     private String description;
     private String coverImage;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private long version;
 }
 
 
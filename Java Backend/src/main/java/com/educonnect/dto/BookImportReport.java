@@ -0,0 +1,33 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImportReport {
+    private int totalRows;
+    private int created;
+    private int duplicates;
+    private int invalid;
+    private List<RowResult> rows;
+    
+    public enum RowStatus {
+        CREATED, DUPLICATE, INVALID
+    }
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RowResult {
+        private int row;
+        private String isbn;
+        private RowStatus status;
+        private Long bookId;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookStockDTO {
+    private Long bookId;
+    // False when the publisher never set a stock level; such books are not limited
+    private boolean tracked;
+    private long available;
+}
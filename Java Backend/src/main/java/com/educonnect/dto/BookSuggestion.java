@@ -0,0 +1,22 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSuggestion {
+    
+    public enum Type {
+        TITLE, AUTHOR, PUBLISHER
+    }
+    
+    private String text;
+    private Type type;
+    // Number of catalog books carrying this title, author or publisher
+    private int weight;
+    // Units sold of those books; suggestions are ranked by this first
+    private long unitsSold;
+}
@@ -0,0 +1,26 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Book fields shown in list views. Built directly by constructor queries, so
+ * the description column is never read for listings.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSummaryDTO {
+    private Long id;
+    private String title;
+    private String grade;
+    private String subject;
+    private String author;
+    private BigDecimal price;
+    private Long publisherId;
+    private String publisherName;
+    private String coverImage;
+}
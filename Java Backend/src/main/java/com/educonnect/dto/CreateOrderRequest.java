@@ -0,0 +1,23 @@
+package com.educonnect.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Either {@code items}, priced from the catalog, or a {@code quote} from
+ * POST /orders/quote, whose prices are used as quoted.
+ */
+@Data
+public class CreateOrderRequest {
+    
+    @Size(max = 1000, message = "Order cannot contain more than 1000 items")
+    private List<@Valid OrderItemRequest> items;
+    
+    private String quote;
+    
+    @Size(max = 50, message = "Payment method must be at most 50 characters")
+    private String paymentMethod;
+}
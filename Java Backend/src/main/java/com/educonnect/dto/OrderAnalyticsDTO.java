@@ -0,0 +1,39 @@
+package com.educonnect.dto;
+
+import com.educonnect.models.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order figures for orders placed between {@code from} and {@code to}
+ * (inclusive). Units exclude cancelled orders; revenue only counts
+ * completed payments.
+ */
+@Data
+@NoArgsConstructor
+public class OrderAnalyticsDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private long orders;
+    private Map<Order.OrderStatus, Long> ordersByStatus;
+    private Map<Order.PaymentStatus, Long> ordersByPaymentStatus;
+    private long units;
+    private BigDecimal revenue;
+    private List<Day> daily;
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private long orders;
+        private long units;
+        private BigDecimal revenue;
+    }
+}
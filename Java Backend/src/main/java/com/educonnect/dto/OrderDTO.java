@@ -0,0 +1,35 @@
+package com.educonnect.dto;
+
+import com.educonnect.models.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class OrderDTO {
+    private Long id;
+    private Long schoolId;
+    private String schoolName;
+    private BigDecimal total;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private String paymentMethod;
+    private LocalDateTime createdAt;
+    private List<Item> items;
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Item {
+        private Long id;
+        private Long bookId;
+        private Long publisherId;
+        private String bookTitle;
+        private Integer quantity;
+        private BigDecimal price;
+    }
+}
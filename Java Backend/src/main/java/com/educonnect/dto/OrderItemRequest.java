@@ -0,0 +1,18 @@
+package com.educonnect.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class OrderItemRequest {
+    
+    @NotNull(message = "Book is required")
+    private Long bookId;
+    
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    @Max(value = 10000, message = "Quantity cannot exceed 10000")
+    private Integer quantity;
+}
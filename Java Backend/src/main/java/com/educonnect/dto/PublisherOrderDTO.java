@@ -0,0 +1,27 @@
+package com.educonnect.dto;
+
+import com.educonnect.models.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * An order as seen by one publisher: quantity and subtotal only cover the
+ * lines for that publisher's books.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PublisherOrderDTO {
+    private Long orderId;
+    private Long schoolId;
+    private String schoolName;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private LocalDateTime createdAt;
+    private long quantity;
+    private BigDecimal subtotal;
+}
@@ -0,0 +1,50 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Prices and availability for a procurement list, grouped by publisher.
+ * {@code quote} is a signed copy of the priced lines; passing it to
+ * POST /orders places the order at these prices until {@code expiresAt}.
+ */
+@Data
+@NoArgsConstructor
+public class QuoteDTO {
+    private String quote;
+    private LocalDateTime expiresAt;
+    private List<PublisherGroup> publishers;
+    private BigDecimal total;
+    // Requested ids and ISBNs that match no book
+    private List<String> unresolved;
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class PublisherGroup {
+        private Long publisherId;
+        private String publisherName;
+        private List<Line> lines;
+        private BigDecimal subtotal;
+    }
+    
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Line {
+        private Long bookId;
+        private String isbn;
+        private String title;
+        private int quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal lineTotal;
+        // Null when the book's stock is not tracked
+        private Long available;
+        private boolean inStock;
+    }
+}
@@ -0,0 +1,24 @@
+package com.educonnect.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * One line of a procurement list, naming the book by id or by ISBN.
+ */
+@Data
+public class QuoteItemRequest {
+    
+    private Long bookId;
+    
+    @Size(max = 50, message = "ISBN must be at most 50 characters")
+    private String isbn;
+    
+    @NotNull(message = "Quantity is required")
+    @Positive(message = "Quantity must be positive")
+    @Max(value = 10000, message = "Quantity cannot exceed 10000")
+    private Integer quantity;
+}
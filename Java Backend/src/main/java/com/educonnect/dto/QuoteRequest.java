@@ -0,0 +1,16 @@
+package com.educonnect.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class QuoteRequest {
+    
+    @NotEmpty(message = "Quote must contain at least one item")
+    @Size(max = 1000, message = "Quote cannot contain more than 1000 items")
+    private List<@Valid QuoteItemRequest> items;
+}
@@ -0,0 +1,27 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Version and modification time of an entity, used to answer conditional
+ * GETs (ETag / Last-Modified) without loading or serializing the resource.
+ */
+@Data
+@AllArgsConstructor
+public class ResourceVersion {
+    private Long id;
+    private long version;
+    private LocalDateTime updatedAt;
+    
+    public String eTag(String type) {
+        return "\"" + type + "-" + id + "-" + version + "\"";
+    }
+    
+    public long lastModifiedMillis() {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,14 @@
+package com.educonnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TopSellingBookDTO {
+    private BookSummaryDTO book;
+    // Units sold, excluding cancelled orders
+    private long quantitySold;
+}
@@ -0,0 +1,15 @@
+package com.educonnect.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class UpdateStockRequest {
+    
+    @NotNull(message = "Quantity is required")
+    @PositiveOrZero(message = "Quantity cannot be negative")
+    @Max(value = 100000000, message = "Quantity cannot exceed 100000000")
+    private Integer quantity;
+}
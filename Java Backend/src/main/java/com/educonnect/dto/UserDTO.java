@@ -17,6 +17,8 @@ public class UserDTO {
     private String profileImage;
     private User.UserStatus status;
     private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private long version;
 }
 
 
@@ -0,0 +1,23 @@
+package com.educonnect.dto;
+
+import com.educonnect.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * User fields shown in list views. Password hashes and document URLs are
+ * left out of the query entirely; the full UserDTO comes from GET /users/{id}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSummaryDTO {
+    private Long id;
+    private String name;
+    private String email;
+    private User.UserRole role;
+    private String organizationName;
+    private String profileImage;
+    private User.UserStatus status;
+}
@@ -0,0 +1,21 @@
+package com.educonnect.events;
+
+import com.educonnect.models.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by BookService whenever a book is written. In-memory catalog
+ * structures listen for it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class BookChangedEvent {
+    
+    private final Book book;
+    private final ChangeType type;
+    
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,17 @@
+package com.educonnect.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Published by BookSalesCounter after each flush that wrote sales. Carries
+ * the new total units sold of every book whose total changed.
+ */
+@Getter
+@AllArgsConstructor
+public class BookSalesFlushedEvent {
+    
+    private final Map<Long, Long> unitsSold;
+}
@@ -0,0 +1,26 @@
+package com.educonnect.events;
+
+import com.educonnect.dto.OrderDTO;
+import com.educonnect.models.Order;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by OrderService when an order is placed or its status or payment
+ * status changes. Rollups are updated inside the transaction; in-memory sales
+ * counters pick it up after commit.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderChangedEvent {
+    
+    private final OrderDTO order;
+    private final ChangeType type;
+    // Statuses before the change; null for new orders
+    private final Order.OrderStatus previousStatus;
+    private final Order.PaymentStatus previousPaymentStatus;
+    
+    public enum ChangeType {
+        CREATED, STATUS_CHANGED, PAYMENT_CHANGED
+    }
+}
@@ -0,0 +1,20 @@
+package com.educonnect.events;
+
+import com.educonnect.models.OutboxEvent;
+
+/**
+ * Side effect run by OutboxDispatcher for outbox events, off the request
+ * thread. Delivery is at least once, so handlers must tolerate seeing the
+ * same event again. Events of one aggregate arrive in the order they were
+ * recorded.
+ */
+public interface OutboxEventHandler {
+    
+    boolean supports(String eventType);
+    
+    /**
+     * Throwing schedules a retry of the whole event, with backoff; later
+     * events of the same aggregate wait until it succeeds or is given up.
+     */
+    void handle(OutboxEvent event) throws Exception;
+}
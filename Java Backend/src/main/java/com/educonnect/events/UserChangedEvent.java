@@ -0,0 +1,21 @@
+package com.educonnect.events;
+
+import com.educonnect.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published whenever a user is written (UserService, password rehash on login). Security-side caches
+ * listen for it after the surrounding transaction commits.
+ */
+@Getter
+@AllArgsConstructor
+public class UserChangedEvent {
+    
+    private final User user;
+    private final ChangeType type;
+    
+    public enum ChangeType {
+        CREATED, UPDATED
+    }
+}
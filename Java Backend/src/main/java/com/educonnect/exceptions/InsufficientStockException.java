@@ -0,0 +1,11 @@
+package com.educonnect.exceptions;
+
+/**
+ * Thrown when an order asks for more units of a book than are in stock.
+ * Mapped to 409 Conflict.
+ */
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
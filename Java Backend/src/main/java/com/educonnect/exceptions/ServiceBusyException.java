@@ -0,0 +1,11 @@
+package com.educonnect.exceptions;
+
+/**
+ * Thrown when a bounded worker pool is saturated and the request is shed
+ * instead of queued. Mapped to 503 Service Unavailable.
+ */
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
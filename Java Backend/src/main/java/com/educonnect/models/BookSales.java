@@ -0,0 +1,30 @@
+package com.educonnect.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units sold per book, excluding cancelled orders. Maintained incrementally
+ * by BookSalesCounter rather than aggregated from order_items.
+ */
+@Entity
+@Table(name = "book_sales")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSales {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "quantity_sold", nullable = false)
+    private long quantitySold;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,41 @@
+package com.educonnect.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Units on hand for a book, split across a few stripe rows so concurrent
+ * orders for the same title decrement different rows. The book's stock is
+ * the sum of its stripes; a book without rows is not stock-tracked.
+ * Written by StockService with conditional updates only.
+ */
+@Entity
+@Table(name = "book_stock")
+@IdClass(BookStock.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookStock {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Id
+    private int stripe;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long bookId;
+        private int stripe;
+    }
+}
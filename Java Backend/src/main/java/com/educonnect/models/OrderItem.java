@@ -24,6 +24,10 @@ public class OrderItem {
     @Column(name = "book_id", nullable = false)
     private Long bookId;
 
+    // Copied from the book when the order is placed; null only on rows not yet backfilled
+    @Column(name = "publisher_id")
+    private Long publisherId;
+
     @Column(name = "book_title", nullable = false)
     private String bookTitle;
 
@@ -0,0 +1,59 @@
+package com.educonnect.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Orders placed on one day, for the whole shop, one school or one publisher,
+ * split by order and payment status. Maintained by OrderRollupService in the
+ * same transaction as the order change, so dashboards never scan orders.
+ */
+@Entity
+@Table(name = "order_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Dimension dimension;
+
+    // School or publisher id; 0 for ALL
+    @Column(name = "dimension_id", nullable = false)
+    private Long dimensionId;
+
+    @Column(name = "order_date", nullable = false)
+    private LocalDate orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Order.OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", nullable = false)
+    private Order.PaymentStatus paymentStatus;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long units;
+
+    // Order totals, or only the publisher's lines for PUBLISHER rows
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal amount;
+
+    public enum Dimension {
+        ALL, SCHOOL, PUBLISHER
+    }
+}
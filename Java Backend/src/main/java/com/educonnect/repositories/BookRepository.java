@@ -1,32 +1,66 @@
 package com.educonnect.repositories;
 
+import com.educonnect.dto.BookSummaryDTO;
 import com.educonnect.models.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
     
-    List<Book> findByPublisherId(Long publisherId);
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
     
-    Optional<Book> findByIsbn(String isbn);
+    @Query("SELECT new com.educonnect.dto.BookSummaryDTO(b.id, b.title, b.grade, b.subject, b.author, b.price, " +
+            "b.publisherId, b.publisherName, b.coverImage) FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    List<BookSummaryDTO> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
     
-    List<Book> findByGrade(String grade);
+    @Query("SELECT new com.educonnect.dto.BookSummaryDTO(b.id, b.title, b.grade, b.subject, b.author, b.price, " +
+            "b.publisherId, b.publisherName, b.coverImage) FROM Book b WHERE b.id IN :ids")
+    List<BookSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
     
-    List<Book> findBySubject(String subject);
+    @Query("SELECT b.id FROM Book b WHERE b.publisherId = :publisherId ORDER BY b.id")
+    List<Long> findIdsByPublisherId(@Param("publisherId") Long publisherId);
     
-    @Query("SELECT b FROM Book b WHERE " +
-           "LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(b.subject) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Book> searchBooks(@Param("keyword") String keyword);
+    // [book, units on hand or null when its stock is not tracked] for the books among ids or isbns; a book
+    // matching both comes back twice. A UNION rather than an OR, so each half keeps its index on any database
+    @Query("SELECT b, (SELECT SUM(s.quantity) FROM BookStock s WHERE s.bookId = b.id) FROM Book b WHERE b.id IN :ids " +
+            "UNION ALL " +
+            "SELECT b, (SELECT SUM(s.quantity) FROM BookStock s WHERE s.bookId = b.id) FROM Book b WHERE b.isbn IN :isbns")
+    List<Object[]> findWithStockByIdInOrIsbnIn(@Param("ids") Collection<Long> ids,
+                                               @Param("isbns") Collection<String> isbns);
     
-    long countByPublisherId(Long publisherId);
+    @Query("SELECT b.id FROM Book b WHERE b.isbn = :isbn")
+    Optional<Long> findIdByIsbn(@Param("isbn") String isbn);
+    
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    List<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+    
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    // [id, grade, subject] of the books among ids
+    @Query("SELECT b.id, b.grade, b.subject FROM Book b WHERE b.id IN :ids")
+    List<Object[]> findGradesAndSubjectsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Read-only, server-side cursor over the whole catalog for exports
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT b FROM Book b ORDER BY b.id")
+    Stream<Book> streamAll();
 }
 
 
@@ -0,0 +1,9 @@
+package com.educonnect.repositories;
+
+import com.educonnect.models.BookSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookSalesRepository extends JpaRepository<BookSales, Long> {
+}
@@ -1,7 +1,9 @@
 package com.educonnect.repositories;
 
 import com.educonnect.models.OrderItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,13 +15,28 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     
     List<OrderItem> findByOrderId(Long orderId);
     
-    List<OrderItem> findByBookId(Long bookId);
+    boolean existsByOrderIdAndPublisherId(Long orderId, Long publisherId);
     
-    @Query("SELECT SUM(oi.quantity) FROM OrderItem oi WHERE oi.bookId = :bookId")
-    Long getTotalQuantitySoldForBook(@Param("bookId") Long bookId);
+    /**
+     * One row per order containing the publisher's books, newest first:
+     * order id, units and subtotal of that publisher's lines only.
+     */
+    @Query("SELECT oi.orderId, SUM(oi.quantity), SUM(oi.price * oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.publisherId = :publisherId AND oi.orderId < :beforeId " +
+           "GROUP BY oi.orderId ORDER BY oi.orderId DESC")
+    List<Object[]> findPublisherOrderTotals(@Param("publisherId") Long publisherId,
+                                            @Param("beforeId") Long beforeId,
+                                            Limit limit);
     
-    @Query("SELECT oi.bookId, SUM(oi.quantity) FROM OrderItem oi GROUP BY oi.bookId ORDER BY SUM(oi.quantity) DESC")
-    List<Object[]> findTopSellingBooks();
+    @Modifying
+    @Query("UPDATE OrderItem oi SET oi.publisherId = " +
+           "(SELECT b.publisherId FROM Book b WHERE b.id = oi.bookId) WHERE oi.publisherId IS NULL")
+    int backfillPublisherIds();
+    
+    // Units sold per book; only used to seed book_sales the first time
+    @Query("SELECT oi.bookId, SUM(oi.quantity) FROM OrderItem oi " +
+           "WHERE oi.order.status <> 'CANCELLED' GROUP BY oi.bookId")
+    List<Object[]> sumQuantitiesByBook();
 }
 
 
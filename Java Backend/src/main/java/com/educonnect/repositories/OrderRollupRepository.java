@@ -0,0 +1,15 @@
+package com.educonnect.repositories;
+
+import com.educonnect.models.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+    
+    List<OrderRollup> findByDimensionAndDimensionIdAndOrderDateBetweenOrderByOrderDate(
+            OrderRollup.Dimension dimension, Long dimensionId, LocalDate from, LocalDate to);
+}
@@ -1,7 +1,12 @@
 package com.educonnect.repositories;
 
+import com.educonnect.dto.ResourceVersion;
+import com.educonnect.dto.UserSummaryDTO;
 import com.educonnect.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,15 +17,28 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
-    boolean existsByEmail(String email);
+    @Query("SELECT new com.educonnect.dto.ResourceVersion(u.id, u.version, u.updatedAt) FROM User u WHERE u.id = :id")
+    Optional<ResourceVersion> findVersionById(@Param("id") Long id);
+    
+    @Query("SELECT u.id, u.tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<Object[]> findRevokedTokenVersions();
     
-    List<User> findByRole(User.UserRole role);
+    boolean existsByEmail(String email);
     
-    List<User> findByRoleAndStatus(User.UserRole role, User.UserStatus status);
+    @Query("SELECT new com.educonnect.dto.UserSummaryDTO(u.id, u.name, u.email, u.role, u.organizationName, " +
+            "u.profileImage, u.status) FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummaryDTO> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
     
-    List<User> findByStatus(User.UserStatus status);
+    @Query("SELECT new com.educonnect.dto.UserSummaryDTO(u.id, u.name, u.email, u.role, u.organizationName, " +
+            "u.profileImage, u.status) FROM User u WHERE u.role = :role ORDER BY u.id")
+    List<UserSummaryDTO> findSummariesByRole(@Param("role") User.UserRole role);
     
-    long countByRole(User.UserRole role);
+    @Query("SELECT new com.educonnect.dto.UserSummaryDTO(u.id, u.name, u.email, u.role, u.organizationName, " +
+            "u.profileImage, u.status) FROM User u " +
+            "WHERE u.role = :role AND u.status = :status AND u.id > :afterId ORDER BY u.id")
+    List<UserSummaryDTO> findSummariesByRoleAndStatusAfter(@Param("role") User.UserRole role,
+                                                          @Param("status") User.UserStatus status,
+                                                          @Param("afterId") Long afterId, Limit limit);
 }
 
 
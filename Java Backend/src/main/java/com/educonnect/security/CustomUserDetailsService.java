@@ -1,36 +1,114 @@
 package com.educonnect.security;
 
+import com.educonnect.events.UserChangedEvent;
 import com.educonnect.models.User;
 import com.educonnect.repositories.UserRepository;
-import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
 
+/**
+ * Loads users by email for login and for tokens that carry no user id.
+ * Results are cached, and so are unknown emails (for a shorter time), so
+ * repeat lookups stay in memory. Entries are dropped as soon as a change to
+ * the user commits. Also rehashes passwords stored at a lower BCrypt cost.
+ */
 @Service
-@RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+    
+    // Power of two; user changes are counted per stripe of emails
+    private static final int INVALIDATION_STRIPES = 1024;
     
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<String, UserPrincipal> usersByEmail;
+    private final Cache<String, Boolean> unknownEmails;
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
     
-    @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${security.user-cache.max-users}") long maxUsers,
+                                    @Value("${security.user-cache.ttl}") Duration ttl,
+                                    @Value("${security.user-cache.negative-ttl}") Duration negativeTtl,
+                                    MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.unknownEmails = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
         
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-        );
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, "users.byEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownEmails, "users.unknownEmails");
+    }
+    
+    @Override
+    public UserPrincipal loadUserByUsername(String email) throws UsernameNotFoundException {
+        if (unknownEmails.getIfPresent(email) != null) {
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        long invalidationsBefore = invalidations.get(stripe(email));
+        UserPrincipal cached = usersByEmail.get(email, this::loadFromDatabase);
+        if (cached == null) {
+            // A registration that committed after the lookup has already cleared this email;
+            // remembering the miss now would lock the new user out until negative-ttl passes
+            unknownEmails.asMap().compute(email, (key, unknown) ->
+                    invalidations.get(stripe(key)) == invalidationsBefore ? Boolean.TRUE : unknown);
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        // Authentication erases the password on the instance it is given, so never hand out the cached one
+        return cached.copy(cached.getPassword());
+    }
+    
+    private UserPrincipal loadFromDatabase(String email) {
+        return userRepository.findByEmail(email)
+                .map(UserPrincipal::from)
+                .orElse(null);
+    }
+    
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the
+     * stored hash uses a lower cost than the configured encoder.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(updatedUser, UserChangedEvent.ChangeType.UPDATED));
+        return UserPrincipal.from(updatedUser);
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        User user = event.getUser();
+        invalidations.incrementAndGet(stripe(user.getEmail()));
+        usersByEmail.invalidate(user.getEmail());
+        unknownEmails.invalidate(user.getEmail());
+    }
+    
+    private static int stripe(String email) {
+        return email.hashCode() & (INVALIDATION_STRIPES - 1);
     }
 }
-
-
-
-
-
@@ -1,5 +1,7 @@
 package com.educonnect.security;
 
+import com.educonnect.models.User;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,7 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -21,6 +22,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -28,13 +30,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                    FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
+            Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.verify(jwt) : null;
+            UserPrincipal principal = claims != null ? principalFrom(claims) : null;
             
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                String email = jwtTokenProvider.getEmailFromToken(jwt);
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(email);
-                
+            if (principal != null) {
                 UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -46,6 +47,34 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Builds the principal from the token's claims without touching the
+     * database. Returns null when the token has been revoked.
+     */
+    private UserPrincipal principalFrom(Claims claims) {
+        Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+        if (userId == null || !claims.containsKey(JwtTokenProvider.CLAIM_NAME)) {
+            // Tokens issued before ids and names were embedded: fall back to a lookup by email
+            UserPrincipal principal = customUserDetailsService.loadUserByUsername(claims.getSubject());
+            return principal.isEnabled() ? principal : null;
+        }
+        Integer tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Integer.class);
+        if (tokenVersion == null || !tokenVersionRegistry.isCurrent(userId, tokenVersion)) {
+            return null;
+        }
+        return new UserPrincipal(
+                userId,
+                claims.getSubject(),
+                null,
+                claims.get(JwtTokenProvider.CLAIM_NAME, String.class),
+                claims.get(JwtTokenProvider.CLAIM_ORGANIZATION, String.class),
+                null,
+                User.UserRole.valueOf(claims.get(JwtTokenProvider.CLAIM_ROLE, String.class)),
+                User.UserStatus.valueOf(claims.get(JwtTokenProvider.CLAIM_STATUS, String.class)),
+                tokenVersion
+        );
+    }
+    
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,163 @@
+package com.educonnect.security;
+
+import com.educonnect.config.RateLimitProperties;
+import com.educonnect.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token buckets in front of JwtAuthenticationFilter. Each bucket
+ * is a single AtomicLong holding its theoretical arrival time (GCRA), so a
+ * request costs one CAS and no locks. Idle buckets are evicted. Rejected
+ * requests get 429 with Retry-After and are counted in
+ * {@code http.ratelimit.rejected}, tagged by policy.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final List<RoutePolicy> policies = new ArrayList<>();
+    // "policy|key" -> theoretical arrival time in nanos
+    private final Cache<String, AtomicLong> buckets;
+    
+    public RateLimitFilter(RateLimitProperties properties,
+                           JwtTokenProvider jwtTokenProvider,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+        this.enabled = properties.isEnabled();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxKeys())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+        
+        for (RateLimitProperties.Policy policy : properties.getPolicies()) {
+            if (policy.getCapacity() <= 0 || policy.getPeriod() == null || policy.getPeriod().isZero()) {
+                throw new IllegalArgumentException("Rate limit policy '" + policy.getName() + "' needs a capacity and period");
+            }
+            policies.add(new RoutePolicy(policy, matcher(policy),
+                    Counter.builder("http.ratelimit.rejected").tag("policy", policy.getName()).register(meterRegistry)));
+        }
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RoutePolicy policy = enabled ? policyFor(request) : null;
+        if (policy != null) {
+            long waitNanos = acquire(policy, policy.name + "|" + clientKey(policy, request));
+            if (waitNanos > 0) {
+                policy.rejected.increment();
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                objectMapper.writeValue(response.getOutputStream(), ApiResponse.error("Too many requests, please retry later"));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+    
+    /**
+     * GCRA: takes one token from the bucket, returning 0 on success or the
+     * nanos until a token will be available.
+     */
+    private long acquire(RoutePolicy policy, String key) {
+        AtomicLong arrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrival.get();
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = start + policy.emissionIntervalNanos;
+            long excess = next - now - policy.burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+    
+    private RoutePolicy policyFor(HttpServletRequest request) {
+        for (RoutePolicy policy : policies) {
+            if (policy.matcher.matches(request)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+    
+    private String clientKey(RoutePolicy policy, HttpServletRequest request) {
+        if (policy.keyType == RateLimitProperties.KeyType.PRINCIPAL) {
+            String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (header != null && header.startsWith("Bearer ")) {
+                // Verified (and cached) here so a forged token cannot drain another user's bucket
+                Claims claims = jwtTokenProvider.verify(header.substring(7));
+                if (claims != null) {
+                    // Keyed by id, so the bucket stays with the user across an email change; older tokens carry only the email
+                    Long userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Long.class);
+                    return userId != null ? "user:" + userId : "email:" + claims.getSubject();
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+    
+    private static RequestMatcher matcher(RateLimitProperties.Policy policy) {
+        if (policy.getMethods().isEmpty()) {
+            return new AntPathRequestMatcher(policy.getPath());
+        }
+        List<RequestMatcher> matchers = new ArrayList<>();
+        for (String method : policy.getMethods()) {
+            matchers.add(new AntPathRequestMatcher(policy.getPath(), method));
+        }
+        return new OrRequestMatcher(matchers);
+    }
+    
+    private static class RoutePolicy {
+        private final String name;
+        private final RequestMatcher matcher;
+        private final RateLimitProperties.KeyType keyType;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final Counter rejected;
+        
+        private RoutePolicy(RateLimitProperties.Policy policy, RequestMatcher matcher, Counter rejected) {
+            this.name = policy.getName();
+            this.matcher = matcher;
+            this.keyType = policy.getKey();
+            this.emissionIntervalNanos = policy.getPeriod().toNanos() / policy.getCapacity();
+            // A full bucket admits `capacity` requests back to back
+            this.burstToleranceNanos = emissionIntervalNanos * policy.getCapacity();
+            this.rejected = rejected;
+        }
+    }
+}
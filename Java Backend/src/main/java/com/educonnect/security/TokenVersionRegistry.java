@@ -0,0 +1,54 @@
+package com.educonnect.security;
+
+import com.educonnect.events.UserChangedEvent;
+import com.educonnect.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-instance cache of users.token_version, which stays the source of
+ * truth. JwtAuthenticationFilter is its only reader: it calls isCurrent so
+ * that revoked JWTs are turned away without a database lookup per request.
+ * <p>
+ * Only users revoked at least once are held; anyone missing is taken to be
+ * on version 0. The map is filled from the database on startup, and a
+ * UserChangedEvent overwrites the user's entry once its transaction commits.
+ * A revocation committed by another instance, or written straight to the
+ * database, is not seen here until load() runs again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+    
+    private final UserRepository userRepository;
+    
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+    
+    // Loaded before the web server accepts requests, so no revoked token slips through at startup
+    @PostConstruct
+    public void load() {
+        versions.clear();
+        for (Object[] row : userRepository.findRevokedTokenVersions()) {
+            versions.put((Long) row[0], (Integer) row[1]);
+        }
+        log.info("Token version registry loaded: {} users with revoked tokens", versions.size());
+    }
+    
+    public boolean isCurrent(long userId, int tokenVersion) {
+        return versions.getOrDefault(userId, 0) == tokenVersion;
+    }
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.getUser().getTokenVersion() > 0) {
+            versions.put(event.getUser().getId(), event.getUser().getTokenVersion());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.educonnect.security;
+
+import com.educonnect.models.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * The authenticated user as seen by controllers and services. Built either
+ * from a JWT's claims or, at login, from the users table, so the request
+ * never needs to load the User entity again. Inject it with @CurrentUser.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPrincipal implements UserDetails, CredentialsContainer {
+    
+    private final Long id;
+    private final String email;
+    // Null when built from a token
+    private String password;
+    private final String name;
+    private final String organizationName;
+    private final String profileImage;
+    private final User.UserRole role;
+    private final User.UserStatus status;
+    private final int tokenVersion;
+    
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getPassword(), user.getName(),
+                user.getOrganizationName(), user.getProfileImage(), user.getRole(), user.getStatus(),
+                user.getTokenVersion());
+    }
+    
+    /**
+     * Returns a copy, optionally with a different password hash. Shared
+     * (cached) instances must never reach authentication, which erases credentials.
+     */
+    public UserPrincipal copy(String password) {
+        return new UserPrincipal(id, email, password, name, organizationName, profileImage, role, status, tokenVersion);
+    }
+    
+    // Name shown on books this user publishes
+    public String getDisplayName() {
+        return organizationName != null ? organizationName : name;
+    }
+    
+    public boolean isAdmin() {
+        return role == User.UserRole.ADMIN;
+    }
+    
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+    
+    @Override
+    public String getUsername() {
+        return email;
+    }
+    
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+    
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+    
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+    
+    // Rejected accounts stay loadable but can no longer authenticate
+    @Override
+    public boolean isEnabled() {
+        return status != User.UserStatus.REJECTED;
+    }
+    
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.educonnect.services;
+
+import com.educonnect.events.OutboxEventHandler;
+import com.educonnect.models.OutboxEvent;
+import com.educonnect.models.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emails publishers and admins when their account is approved or rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.email.enabled", havingValue = "true")
+public class AccountStatusEmailHandler implements OutboxEventHandler {
+    
+    private final JavaMailSender mailSender;
+    private final ObjectMapper objectMapper;
+    private final String from;
+    
+    public AccountStatusEmailHandler(JavaMailSender mailSender,
+                                     ObjectMapper objectMapper,
+                                     @Value("${spring.mail.username}") String from) {
+        this.mailSender = mailSender;
+        this.objectMapper = objectMapper;
+        this.from = from;
+    }
+    
+    @Override
+    public boolean supports(String eventType) {
+        return UserService.USER_STATUS_CHANGED.equals(eventType);
+    }
+    
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        User.UserStatus status = User.UserStatus.valueOf(payload.get("status").asText());
+        if (status != User.UserStatus.APPROVED && status != User.UserStatus.REJECTED) {
+            return;
+        }
+        
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(from);
+        message.setTo(payload.get("email").asText());
+        if (status == User.UserStatus.APPROVED) {
+            message.setSubject("Your EduConnect account has been approved");
+            message.setText("Hello " + payload.get("name").asText() + ",\n\n"
+                    + "Your account has been approved. You can now sign in to EduConnect.");
+        } else {
+            message.setSubject("Your EduConnect account request");
+            message.setText("Hello " + payload.get("name").asText() + ",\n\n"
+                    + "Unfortunately your account request was not approved.");
+        }
+        mailSender.send(message);
+    }
+}
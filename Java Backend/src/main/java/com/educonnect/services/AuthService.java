@@ -4,10 +4,13 @@ import com.educonnect.dto.AuthResponse;
 import com.educonnect.dto.LoginRequest;
 import com.educonnect.dto.RegisterRequest;
 import com.educonnect.dto.UserDTO;
+import com.educonnect.exceptions.ServiceBusyException;
 import com.educonnect.models.User;
 import com.educonnect.security.JwtTokenProvider;
+import com.educonnect.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -21,24 +24,34 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     
     public AuthResponse register(RegisterRequest request) {
-        UserDTO user = userService.createUser(request);
-        String token = jwtTokenProvider.generateToken(user.getEmail());
-        return new AuthResponse(token, user);
+        User user = userService.registerUser(request);
+        String token = jwtTokenProvider.generateToken(UserPrincipal.from(user));
+        return new AuthResponse(token, userService.mapToDTO(user));
     }
     
     public AuthResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
+            );
+        } catch (InternalAuthenticationServiceException e) {
+            // The provider wraps failures raised while hashing for unknown users
+            if (e.getCause() instanceof ServiceBusyException busy) {
+                throw busy;
+            }
+            throw e;
+        }
         
-        User user = userService.findByEmail(request.getEmail());
+        // Loaded once by the authentication provider; no second lookup
+        UserPrincipal user = (UserPrincipal) authentication.getPrincipal();
         
         // Check if user is approved
         if (user.getStatus() != User.UserStatus.APPROVED) {
             throw new IllegalStateException("Account is not approved yet");
         }
         
-        String token = jwtTokenProvider.generateToken(authentication.getName());
+        String token = jwtTokenProvider.generateToken(user);
         
         // Map to UserDTO
         UserDTO userDTO = new UserDTO();
@@ -53,8 +66,3 @@ public class AuthService {
         return new AuthResponse(token, userDTO);
     }
 }
-
-
-
-
-
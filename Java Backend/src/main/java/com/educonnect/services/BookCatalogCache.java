@@ -0,0 +1,137 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.BookDTO;
+import com.educonnect.dto.BookSummaryDTO;
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.models.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache in front of BookRepository, keyed by book id, ISBN and
+ * publisher id. Entries are invalidated after every committed book write;
+ * the TTL only bounds staleness from writes made outside this application.
+ * Hit/miss/eviction counts are published as {@code cache.*} metrics.
+ */
+@Component
+public class BookCatalogCache {
+    
+    // Stored for ISBNs known not to exist, so repeated uniqueness checks stay in memory
+    private static final long NO_BOOK = -1L;
+    // Power of two; invalidations of summaries are counted per stripe of book ids
+    private static final int INVALIDATION_STRIPES = 1024;
+    
+    private final Cache<Long, BookDTO> booksById;
+    private final Cache<Long, BookSummaryDTO> summariesById;
+    private final Cache<String, Long> bookIdsByIsbn;
+    private final Cache<Long, long[]> bookIdsByPublisher;
+    private final AtomicLongArray summaryInvalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    
+    public BookCatalogCache(@Value("${catalog.cache.max-books}") long maxBooks,
+                            @Value("${catalog.cache.max-publishers}") long maxPublishers,
+                            @Value("${catalog.cache.ttl}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.booksById = Caffeine.newBuilder()
+                .maximumSize(maxBooks)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.summariesById = Caffeine.newBuilder()
+                .maximumSize(maxBooks)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.bookIdsByIsbn = Caffeine.newBuilder()
+                .maximumSize(maxBooks)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.bookIdsByPublisher = Caffeine.newBuilder()
+                .maximumSize(maxPublishers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, booksById, "books.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, summariesById, "books.summaryById");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookIdsByIsbn, "books.byIsbn");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookIdsByPublisher, "books.byPublisher");
+    }
+    
+    public BookDTO getBook(Long id, Function<Long, BookDTO> loader) {
+        return booksById.get(id, loader);
+    }
+    
+    /**
+     * Returns the cached list-view summaries for {@code ids}, loading all misses with one call
+     * to {@code loader}. Ids the loader does not return are absent from the result.
+     * A loaded summary is only cached if its book was not invalidated while the loader ran,
+     * since the loader may have read the row before that write committed.
+     */
+    public Map<Long, BookSummaryDTO> getSummaries(Collection<Long> ids,
+                                                  Function<Set<? extends Long>, Map<Long, BookSummaryDTO>> loader) {
+        Map<Long, BookSummaryDTO> result = new HashMap<>(summariesById.getAllPresent(ids));
+        Set<Long> misses = new LinkedHashSet<>(ids);
+        misses.removeAll(result.keySet());
+        if (misses.isEmpty()) {
+            return result;
+        }
+        
+        Map<Long, Long> invalidationsBefore = new HashMap<>();
+        for (Long id : misses) {
+            invalidationsBefore.put(id, summaryInvalidations.get(stripe(id)));
+        }
+        Map<Long, BookSummaryDTO> loaded = loader.apply(misses);
+        // The check runs inside compute, which onBookChanged's invalidate waits for, so an
+        // invalidation either shows up in the counter or removes the entry afterwards
+        loaded.forEach((id, summary) -> summariesById.asMap().compute(id, (key, cached) -> {
+            Long before = invalidationsBefore.get(key);
+            return before != null && before == summaryInvalidations.get(stripe(key)) ? summary : cached;
+        }));
+        result.putAll(loaded);
+        return result;
+    }
+    
+    public boolean isbnExists(String isbn, Function<String, Long> idLoader) {
+        Long id = bookIdsByIsbn.get(isbn, key -> {
+            Long found = idLoader.apply(key);
+            return found != null ? found : NO_BOOK;
+        });
+        return id != NO_BOOK;
+    }
+    
+    /**
+     * Returns the ids of a publisher's books in ascending order.
+     */
+    public long[] getPublisherBookIds(Long publisherId, Function<Long, long[]> loader) {
+        return bookIdsByPublisher.get(publisherId, loader);
+    }
+    
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getBook();
+        booksById.invalidate(book.getId());
+        summaryInvalidations.incrementAndGet(stripe(book.getId()));
+        summariesById.invalidate(book.getId());
+        bookIdsByIsbn.invalidate(book.getIsbn());
+        bookIdsByPublisher.invalidate(book.getPublisherId());
+    }
+    
+    private static int stripe(Long bookId) {
+        return Long.hashCode(bookId) & (INVALIDATION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,360 @@
+package com.educonnect.services;
+
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.models.Book;
+import com.educonnect.repositories.BookRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index over the catalog for faceted browsing. Every book gets a
+ * dense ordinal (in id order) and each grade, subject, publisher and price
+ * band keeps a BitSet of the ordinals that carry it, so filters are bitwise
+ * ANDs. Each book also stores the ordinal of its value in every facet, so
+ * facet counts take one pass over the matches.
+ * <p>
+ * A book created out of id order (concurrent creates can commit either way
+ * round) or a build-up of deleted ordinals makes the index renumber its live
+ * books in memory, keeping ordinals in id order and dense.
+ * <p>
+ * A rebuild reads the catalog into new bitmaps while browsing keeps using
+ * the current ones; changes made meanwhile are replayed onto them before the
+ * swap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookFacetIndex {
+    
+    public static final String GRADE = "grade";
+    public static final String SUBJECT = "subject";
+    public static final String PUBLISHER = "publisher";
+    public static final String PRICE_BAND = "priceBand";
+    
+    private static final List<String> FACET_NAMES = List.of(GRADE, SUBJECT, PUBLISHER, PRICE_BAND);
+    // Positions in FACET_NAMES, which facets and Document.values follow
+    private static final int GRADE_FACET = 0;
+    private static final int SUBJECT_FACET = 1;
+    private static final int PUBLISHER_FACET = 2;
+    
+    // Lower bounds of the price bands, in the catalog currency
+    private static final int[] PRICE_BAND_BOUNDS = {0, 250, 500, 1000, 2000};
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    // Deleted ordinals tolerated before renumbering: this many, or a quarter of the live books if more
+    private static final int MIN_DEAD_BEFORE_COMPACTION = 1024;
+    
+    private final BookRepository bookRepository;
+    
+    private Bitmaps bitmaps = new Bitmaps();
+    // Books changed while a rebuild is reading the catalog, null for deleted ones; null when no rebuild runs
+    private Map<Long, Book> changedDuringRebuild;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Bitmaps rebuilt = new Bitmaps();
+        boolean complete = false;
+        try {
+            long lastId = 0L;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+                for (Book book : batch) {
+                    rebuilt.addDocument(book.getId(), valuesOf(book), book.getPrice());
+                    lastId = book.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    changedDuringRebuild.forEach(rebuilt::update);
+                    bitmaps = rebuilt;
+                }
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Book facet index built: {} books", rebuilt.liveCount);
+    }
+    
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getType() == BookChangedEvent.ChangeType.DELETED ? null : event.getBook();
+        lock.writeLock().lock();
+        try {
+            bitmaps.update(event.getBook().getId(), book);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(event.getBook().getId(), book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} matching book ids after {@code afterId}, in
+     * id order, together with facet counts over the whole matching set.
+     * Null filters are ignored.
+     */
+    public BrowseHits browse(String grade, String subject, Long publisherId,
+                             BigDecimal minPrice, BigDecimal maxPrice,
+                             long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Bitmaps current = bitmaps;
+            Facet[] facets = current.facets;
+            BitSet matches = (BitSet) current.alive.clone();
+            if (grade != null) {
+                matches.and(facets[GRADE_FACET].bitmap(grade));
+            }
+            if (subject != null) {
+                matches.and(facets[SUBJECT_FACET].bitmap(subject));
+            }
+            if (publisherId != null) {
+                matches.and(facets[PUBLISHER_FACET].bitmap(publisherId.toString()));
+            }
+            
+            // One pass: apply the price range, count facet values and collect the page
+            boolean priceFilter = minPrice != null || maxPrice != null;
+            int[][] valueCounts = new int[facets.length][];
+            for (int f = 0; f < facets.length; f++) {
+                valueCounts[f] = new int[facets[f].values.size()];
+            }
+            int start = current.startOrdinal(afterId);
+            int totalMatches = 0;
+            List<Long> ids = new ArrayList<>(limit);
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                Document document = current.documents.get(i);
+                if (priceFilter && ((minPrice != null && document.price.compareTo(minPrice) < 0)
+                        || (maxPrice != null && document.price.compareTo(maxPrice) > 0))) {
+                    continue;
+                }
+                totalMatches++;
+                for (int f = 0; f < facets.length; f++) {
+                    valueCounts[f][document.values[f]]++;
+                }
+                if (i >= start && ids.size() < limit) {
+                    ids.add(document.bookId);
+                }
+            }
+            
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (int f = 0; f < facets.length; f++) {
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                for (int value = 0; value < valueCounts[f].length; value++) {
+                    if (valueCounts[f][value] > 0) {
+                        facetCounts.put(facets[f].values.get(value), valueCounts[f][value]);
+                    }
+                }
+                counts.put(FACET_NAMES.get(f), facetCounts);
+            }
+            return new BrowseHits(ids, totalMatches, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static String[] valuesOf(Book book) {
+        return new String[]{book.getGrade(), book.getSubject(), book.getPublisherId().toString(), priceBand(book.getPrice())};
+    }
+    
+    private static Facet[] newFacets() {
+        Facet[] facets = new Facet[FACET_NAMES.size()];
+        for (int f = 0; f < facets.length; f++) {
+            facets[f] = new Facet();
+        }
+        return facets;
+    }
+    
+    static String priceBand(BigDecimal price) {
+        int band = PRICE_BAND_BOUNDS.length - 1;
+        while (band > 0 && price.compareTo(BigDecimal.valueOf(PRICE_BAND_BOUNDS[band])) < 0) {
+            band--;
+        }
+        return band == PRICE_BAND_BOUNDS.length - 1
+                ? PRICE_BAND_BOUNDS[band] + "+"
+                : PRICE_BAND_BOUNDS[band] + "-" + PRICE_BAND_BOUNDS[band + 1];
+    }
+    
+    // Ordinals, documents and facet bitmaps of one catalog build; swapped whole by a rebuild
+    private static class Bitmaps {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final List<Document> documents = new ArrayList<>();
+        private final BitSet alive = new BitSet();
+        private int liveCount;
+        private final Facet[] facets = newFacets();
+        
+        // Indexes the book's current state, or drops it when book is null
+        private void update(Long bookId, Book book) {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal != null && alive.get(ordinal)) {
+                removeDocument(ordinal);
+            }
+            if (book != null) {
+                boolean outOfOrder = ordinal == null && !documents.isEmpty()
+                        && documents.get(documents.size() - 1).bookId > bookId;
+                addDocument(bookId, valuesOf(book), book.getPrice());
+                if (outOfOrder) {
+                    compact();
+                }
+            }
+            int dead = documents.size() - liveCount;
+            if (dead > Math.max(MIN_DEAD_BEFORE_COMPACTION, liveCount / 4)) {
+                compact();
+            }
+        }
+        
+        private int startOrdinal(long afterId) {
+            if (afterId <= 0) {
+                return 0;
+            }
+            Integer ordinal = ordinals.get(afterId);
+            if (ordinal != null) {
+                return ordinal + 1;
+            }
+            // Cursor book is gone: binary search the ordinals, which are in id order
+            int low = 0;
+            int high = documents.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (documents.get(mid).bookId <= afterId) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        private void addDocument(long bookId, String[] values, BigDecimal price) {
+            // Updates keep their ordinal so id order (and cursors) stay stable
+            Integer ordinal = ordinals.get(bookId);
+            int[] valueOrdinals = new int[facets.length];
+            for (int f = 0; f < facets.length; f++) {
+                valueOrdinals[f] = facets[f].ordinal(values[f]);
+            }
+            Document document = new Document(bookId, valueOrdinals, price);
+            if (ordinal == null) {
+                ordinal = documents.size();
+                ordinals.put(bookId, ordinal);
+                documents.add(document);
+            } else {
+                documents.set(ordinal, document);
+            }
+            
+            alive.set(ordinal);
+            liveCount++;
+            for (int f = 0; f < facets.length; f++) {
+                facets[f].bitmaps.get(valueOrdinals[f]).set(ordinal);
+            }
+        }
+        
+        private void removeDocument(int ordinal) {
+            Document document = documents.get(ordinal);
+            alive.clear(ordinal);
+            liveCount--;
+            for (int f = 0; f < facets.length; f++) {
+                facets[f].bitmaps.get(document.values[f]).clear(ordinal);
+            }
+        }
+        
+        // Renumbers the live books in id order, dropping deleted ordinals and unused facet values
+        private void compact() {
+            List<Document> live = new ArrayList<>(liveCount);
+            for (int i = alive.nextSetBit(0); i >= 0; i = alive.nextSetBit(i + 1)) {
+                live.add(documents.get(i));
+            }
+            live.sort(Comparator.comparingLong(document -> document.bookId));
+            List<String[]> values = new ArrayList<>(live.size());
+            for (Document document : live) {
+                String[] documentValues = new String[facets.length];
+                for (int f = 0; f < facets.length; f++) {
+                    documentValues[f] = facets[f].values.get(document.values[f]);
+                }
+                values.add(documentValues);
+            }
+            
+            clear();
+            for (int i = 0; i < live.size(); i++) {
+                addDocument(live.get(i).bookId, values.get(i), live.get(i).price);
+            }
+            log.debug("Book facet index compacted: {} books", liveCount);
+        }
+        
+        private void clear() {
+            ordinals.clear();
+            documents.clear();
+            alive.clear();
+            liveCount = 0;
+            for (Facet facet : facets) {
+                facet.clear();
+            }
+        }
+    }
+    
+    @AllArgsConstructor
+    private static class Document {
+        private final long bookId;
+        // Ordinal of the book's value in each facet, in FACET_NAMES order
+        private final int[] values;
+        private final BigDecimal price;
+    }
+    
+    // The distinct values of one facet, numbered as first seen, with a bitmap of books per value
+    private static class Facet {
+        private static final BitSet NONE = new BitSet();
+        
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> bitmaps = new ArrayList<>();
+        
+        private int ordinal(String value) {
+            return ordinals.computeIfAbsent(value, v -> {
+                values.add(v);
+                bitmaps.add(new BitSet());
+                return values.size() - 1;
+            });
+        }
+        
+        private BitSet bitmap(String value) {
+            Integer ordinal = ordinals.get(value);
+            return ordinal == null ? NONE : bitmaps.get(ordinal);
+        }
+        
+        private void clear() {
+            ordinals.clear();
+            values.clear();
+            bitmaps.clear();
+        }
+    }
+    
+    @Data
+    @AllArgsConstructor
+    public static class BrowseHits {
+        private List<Long> bookIds;
+        private int totalMatches;
+        private Map<String, Map<String, Integer>> facetCounts;
+    }
+}
@@ -0,0 +1,313 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.BookImportReport;
+import com.educonnect.dto.CreateBookRequest;
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.models.Book;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.security.UserPrincipal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk catalog import. Rows are validated in memory, ISBNs are checked
+ * against the database with one IN query per chunk, and new books are
+ * written with batched JDBC inserts instead of one JPA save per row.
+ * <p>
+ * A book created elsewhere between the check and the insert fails its
+ * chunk on the ISBN key. That chunk alone is rolled back to its savepoint
+ * and retried row by row, so the clashing rows are reported as duplicates
+ * and the rest of the import goes ahead.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+    
+    public enum ImportFormat {
+        CSV, NDJSON
+    }
+    
+    private static final int CHUNK_SIZE = 1000;
+    private static final String INSERT_SQL =
+            "INSERT INTO books (title, grade, subject, author, isbn, price, publisher_id, publisher_name, " +
+            "description, cover_image, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${catalog.import.max-rows}")
+    private int maxRows;
+    
+    @Transactional
+    public BookImportReport importBooks(InputStream input, ImportFormat format, UserPrincipal publisher) throws IOException {
+        List<ParsedRow> rows = format == ImportFormat.CSV ? parseCsv(input) : parseNdjson(input);
+        List<BookImportReport.RowResult> results = new ArrayList<>(rows.size());
+        List<ParsedRow> candidates = new ArrayList<>(rows.size());
+        
+        // Validate and drop ISBNs repeated within the file
+        Set<String> seenIsbns = new HashSet<>();
+        for (ParsedRow row : rows) {
+            String error = row.error != null ? row.error : validate(row.request);
+            String isbn = row.request != null ? row.request.getIsbn() : null;
+            if (error != null) {
+                results.add(result(row, BookImportReport.RowStatus.INVALID, null, error));
+            } else if (!seenIsbns.add(isbn)) {
+                results.add(result(row, BookImportReport.RowStatus.DUPLICATE, null, "Duplicate ISBN in file"));
+            } else {
+                candidates.add(row);
+            }
+        }
+        
+        // One set-based lookup per chunk for ISBNs already in the catalog
+        Set<String> existing = new HashSet<>();
+        for (int i = 0; i < candidates.size(); i += CHUNK_SIZE) {
+            List<String> isbns = candidates.subList(i, Math.min(candidates.size(), i + CHUNK_SIZE)).stream()
+                    .map(row -> row.request.getIsbn())
+                    .collect(Collectors.toList());
+            existing.addAll(bookRepository.findExistingIsbns(isbns));
+        }
+        List<ParsedRow> toInsert = new ArrayList<>(candidates.size());
+        for (ParsedRow row : candidates) {
+            if (existing.contains(row.request.getIsbn())) {
+                results.add(result(row, BookImportReport.RowStatus.DUPLICATE, null, "Book with this ISBN already exists"));
+            } else {
+                toInsert.add(row);
+            }
+        }
+        
+        String publisherName = publisher.getDisplayName();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < toInsert.size(); i += CHUNK_SIZE) {
+            List<ParsedRow> chunk = toInsert.subList(i, Math.min(toInsert.size(), i + CHUNK_SIZE));
+            try {
+                List<Long> ids = insertChunk(chunk, publisher.getId(), publisherName, now);
+                for (int j = 0; j < chunk.size(); j++) {
+                    results.add(created(chunk.get(j), ids.get(j), publisher.getId(), publisherName, now));
+                }
+            } catch (DuplicateKeyException e) {
+                results.addAll(insertRowByRow(chunk, publisher.getId(), publisherName, now));
+            }
+        }
+        
+        results.sort(Comparator.comparingInt(BookImportReport.RowResult::getRow));
+        int created = (int) results.stream().filter(r -> r.getStatus() == BookImportReport.RowStatus.CREATED).count();
+        int duplicates = (int) results.stream().filter(r -> r.getStatus() == BookImportReport.RowStatus.DUPLICATE).count();
+        int invalid = (int) results.stream().filter(r -> r.getStatus() == BookImportReport.RowStatus.INVALID).count();
+        return new BookImportReport(rows.size(), created, duplicates, invalid, results);
+    }
+    
+    // A chunk that hit the ISBN key: ISBNs now in the catalog are duplicates, the other rows are inserted
+    // one at a time so a book created during the retry only costs its own row
+    private List<BookImportReport.RowResult> insertRowByRow(List<ParsedRow> chunk, Long publisherId,
+                                                            String publisherName, LocalDateTime now) {
+        Set<String> taken = new HashSet<>(bookRepository.findExistingIsbns(
+                chunk.stream().map(row -> row.request.getIsbn()).collect(Collectors.toList())));
+        List<BookImportReport.RowResult> results = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            if (!taken.contains(row.request.getIsbn())) {
+                try {
+                    Long id = insertChunk(List.of(row), publisherId, publisherName, now).get(0);
+                    results.add(created(row, id, publisherId, publisherName, now));
+                    continue;
+                } catch (DuplicateKeyException e) {
+                    // Committed by someone else after the re-check, or not yet visible to this transaction
+                }
+            }
+            results.add(result(row, BookImportReport.RowStatus.DUPLICATE, null, "Book with this ISBN already exists"));
+        }
+        return results;
+    }
+    
+    private BookImportReport.RowResult created(ParsedRow row, Long id, Long publisherId, String publisherName, LocalDateTime now) {
+        Book book = toBook(row.request, id, publisherId, publisherName, now);
+        eventPublisher.publishEvent(new BookChangedEvent(book, BookChangedEvent.ChangeType.CREATED));
+        return result(row, BookImportReport.RowStatus.CREATED, id, null);
+    }
+    
+    // Batched insert under a savepoint, so a failed chunk leaves the rest of the import's transaction intact
+    private List<Long> insertChunk(List<ParsedRow> chunk, Long publisherId, String publisherName, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (ParsedRow row : chunk) {
+                    CreateBookRequest request = row.request;
+                    statement.setString(1, request.getTitle());
+                    statement.setString(2, request.getGrade());
+                    statement.setString(3, request.getSubject());
+                    statement.setString(4, request.getAuthor());
+                    statement.setString(5, request.getIsbn());
+                    statement.setBigDecimal(6, request.getPrice());
+                    statement.setLong(7, publisherId);
+                    statement.setString(8, publisherName);
+                    statement.setString(9, request.getDescription());
+                    statement.setString(10, request.getCoverImage());
+                    statement.setTimestamp(11, timestamp);
+                    statement.setTimestamp(12, timestamp);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                
+                List<Long> ids = new ArrayList<>(chunk.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                connection.releaseSavepoint(savepoint);
+                return ids;
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                throw e;
+            }
+        });
+    }
+    
+    private List<ParsedRow> parseCsv(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = CsvUtils.readRecord(reader);
+        if (header == null) {
+            return List.of();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        
+        List<ParsedRow> rows = new ArrayList<>();
+        List<String> record;
+        int rowNumber = 0;
+        while ((record = CsvUtils.readRecord(reader)) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            checkRowLimit(rowNumber);
+            CreateBookRequest request = new CreateBookRequest();
+            request.setTitle(column(record, columns, "title"));
+            request.setGrade(column(record, columns, "grade"));
+            request.setSubject(column(record, columns, "subject"));
+            request.setAuthor(column(record, columns, "author"));
+            request.setIsbn(column(record, columns, "isbn"));
+            request.setDescription(column(record, columns, "description"));
+            request.setCoverImage(column(record, columns, "coverimage"));
+            String price = column(record, columns, "price");
+            try {
+                request.setPrice(price != null ? new BigDecimal(price.trim()) : null);
+                rows.add(new ParsedRow(rowNumber, request, null));
+            } catch (NumberFormatException e) {
+                rows.add(new ParsedRow(rowNumber, request, "price: Invalid number"));
+            }
+        }
+        return rows;
+    }
+    
+    private List<ParsedRow> parseNdjson(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ParsedRow> rows = new ArrayList<>();
+        String line;
+        int rowNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            checkRowLimit(rowNumber);
+            try {
+                rows.add(new ParsedRow(rowNumber, objectMapper.readValue(line, CreateBookRequest.class), null));
+            } catch (JsonProcessingException e) {
+                rows.add(new ParsedRow(rowNumber, null, "Malformed JSON"));
+            }
+        }
+        return rows;
+    }
+    
+    private void checkRowLimit(int rowNumber) {
+        if (rowNumber > maxRows) {
+            throw new IllegalArgumentException("Import is limited to " + maxRows + " rows");
+        }
+    }
+    
+    private String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+    
+    private String validate(CreateBookRequest request) {
+        Set<ConstraintViolation<CreateBookRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+    
+    private BookImportReport.RowResult result(ParsedRow row, BookImportReport.RowStatus status, Long bookId, String message) {
+        String isbn = row.request != null ? row.request.getIsbn() : null;
+        return new BookImportReport.RowResult(row.rowNumber, isbn, status, bookId, message);
+    }
+    
+    private Book toBook(CreateBookRequest request, Long id, Long publisherId, String publisherName, LocalDateTime now) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(request.getTitle());
+        book.setGrade(request.getGrade());
+        book.setSubject(request.getSubject());
+        book.setAuthor(request.getAuthor());
+        book.setIsbn(request.getIsbn());
+        book.setPrice(request.getPrice());
+        book.setPublisherId(publisherId);
+        book.setPublisherName(publisherName);
+        book.setDescription(request.getDescription());
+        book.setCoverImage(request.getCoverImage());
+        book.setCreatedAt(now);
+        book.setUpdatedAt(now);
+        return book;
+    }
+    
+    private static class ParsedRow {
+        private final int rowNumber;
+        private final CreateBookRequest request;
+        private final String error;
+        
+        private ParsedRow(int rowNumber, CreateBookRequest request, String error) {
+            this.rowNumber = rowNumber;
+            this.request = request;
+            this.error = error;
+        }
+    }
+}
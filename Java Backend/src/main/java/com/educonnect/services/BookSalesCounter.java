@@ -0,0 +1,313 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.OrderDTO;
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.events.BookSalesFlushedEvent;
+import com.educonnect.events.OrderChangedEvent;
+import com.educonnect.models.BookSales;
+import com.educonnect.models.Order;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.repositories.BookSalesRepository;
+import com.educonnect.repositories.OrderItemRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Units sold per book, kept in memory. Orders add to per-book LongAdders when
+ * they commit; the deltas are written to book_sales on a schedule, and the
+ * counters are reloaded from that table on startup. Rankings of the best
+ * sellers, overall and per grade, subject and grade + subject, are rebuilt
+ * after each flush that saw changes; each counter remembers its book's grade
+ * and subject for that. Each flush that wrote sales also publishes a
+ * BookSalesFlushedEvent with the new totals.
+ * Sales recorded since the last flush are lost if the process dies.
+ */
+@Slf4j
+@Component
+public class BookSalesCounter {
+    
+    private static final int RESOLVE_BATCH_SIZE = 1000;
+    private static final Ranking EMPTY = new Ranking(new long[0], new long[0], Map.of());
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO book_sales (book_id, quantity_sold, updated_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE quantity_sold = quantity_sold + VALUES(quantity_sold), updated_at = VALUES(updated_at)";
+    
+    private final BookSalesRepository bookSalesRepository;
+    private final BookRepository bookRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int rankingSize;
+    
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicBoolean rankingStale = new AtomicBoolean();
+    private volatile Ranking ranking = EMPTY;
+    
+    public BookSalesCounter(BookSalesRepository bookSalesRepository,
+                            BookRepository bookRepository,
+                            OrderItemRepository orderItemRepository,
+                            JdbcTemplate jdbcTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${catalog.sales.ranking-size}") int rankingSize) {
+        this.bookSalesRepository = bookSalesRepository;
+        this.bookRepository = bookRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.rankingSize = rankingSize;
+    }
+    
+    @PostConstruct
+    public void load() {
+        List<BookSales> rows = bookSalesRepository.findAll();
+        if (rows.isEmpty()) {
+            // First start with this table: seed it from the order history once
+            for (Object[] row : orderItemRepository.sumQuantitiesByBook()) {
+                counter((Long) row[0]).total.add(((Number) row[1]).longValue());
+            }
+            flush();
+        } else {
+            for (BookSales row : rows) {
+                Counter counter = counter(row.getBookId());
+                counter.total.add(row.getQuantitySold());
+                counter.flushed = row.getQuantitySold();
+            }
+        }
+        rebuildRanking();
+        log.info("Book sales loaded: {} books", counters.size());
+    }
+    
+    @TransactionalEventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        int sign = sign(event);
+        if (sign == 0) {
+            return;
+        }
+        for (OrderDTO.Item item : event.getOrder().getItems()) {
+            counter(item.getBookId()).total.add((long) sign * item.getQuantity());
+        }
+        rankingStale.set(true);
+    }
+    
+    // Keeps the grade and subject rankings in step with edits; a deleted book drops out of them
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        Counter counter = counters.get(event.getBook().getId());
+        if (counter == null) {
+            return;
+        }
+        boolean deleted = event.getType() == BookChangedEvent.ChangeType.DELETED;
+        counter.grade = deleted ? null : event.getBook().getGrade();
+        counter.subject = deleted ? null : event.getBook().getSubject();
+        counter.resolved = true;
+        rankingStale.set(true);
+    }
+    
+    // Cancelling an order takes its units back out; reinstating it adds them again
+    private static int sign(OrderChangedEvent event) {
+        boolean cancelled = event.getOrder().getStatus() == Order.OrderStatus.CANCELLED;
+        if (event.getType() == OrderChangedEvent.ChangeType.CREATED) {
+            return cancelled ? 0 : 1;
+        }
+        boolean wasCancelled = event.getPreviousStatus() == Order.OrderStatus.CANCELLED;
+        if (cancelled == wasCancelled) {
+            return 0;
+        }
+        return cancelled ? -1 : 1;
+    }
+    
+    /**
+     * Writes the change since the last flush of every counter in one batch
+     * and refreshes the ranking. Totals are never reset, so sales that race
+     * with a flush are simply picked up by the next one.
+     */
+    @Scheduled(fixedDelayString = "${catalog.sales.flush-interval}", initialDelayString = "${catalog.sales.flush-interval}")
+    @PreDestroy
+    public synchronized void flush() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        Map<Long, Long> totals = new HashMap<>();
+        counters.forEach((bookId, counter) -> {
+            long total = counter.total.sum();
+            if (total != counter.flushed) {
+                batch.add(new Object[]{bookId, total - counter.flushed, now});
+                totals.put(bookId, total);
+            }
+        });
+        
+        if (!batch.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            } catch (DataAccessException e) {
+                // Nothing is marked as flushed, so the next run retries the same deltas
+                log.warn("Failed to flush sales for {} books", batch.size(), e);
+                return;
+            }
+            totals.forEach((bookId, total) -> counters.get(bookId).flushed = total);
+            eventPublisher.publishEvent(new BookSalesFlushedEvent(totals));
+        }
+        if (rankingStale.getAndSet(false)) {
+            rebuildRanking();
+        }
+    }
+    
+    /**
+     * The best sellers as of the last flush among books of the given grade
+     * and subject (either may be null for any), at most
+     * catalog.sales.ranking-size of them, most units first.
+     */
+    public Ranking getRanking(String grade, String subject) {
+        Ranking overall = ranking;
+        if (grade == null && subject == null) {
+            return overall;
+        }
+        return overall.filtered.getOrDefault(filterKey(grade, subject), EMPTY);
+    }
+    
+    /**
+     * Units sold of one book so far, including sales not flushed yet.
+     */
+    public long getUnitsSold(Long bookId) {
+        Counter counter = counters.get(bookId);
+        return counter == null ? 0L : counter.total.sum();
+    }
+    
+    private Counter counter(Long bookId) {
+        return counters.computeIfAbsent(bookId, id -> new Counter());
+    }
+    
+    private void rebuildRanking() {
+        resolveBooks();
+        List<long[]> entries = new ArrayList<>(counters.size());
+        counters.forEach((bookId, counter) -> {
+            long total = counter.total.sum();
+            if (total > 0) {
+                entries.add(new long[]{bookId, total});
+            }
+        });
+        entries.sort(Comparator.<long[]>comparingLong(entry -> -entry[1]).thenComparingLong(entry -> entry[0]));
+        
+        // One pass over the sorted sales fills every grade/subject ranking up to its size
+        Map<String, RankingBuilder> filtered = new HashMap<>();
+        for (long[] entry : entries) {
+            Counter counter = counters.get(entry[0]);
+            String grade = counter.grade;
+            String subject = counter.subject;
+            if (grade == null || subject == null) {
+                continue;
+            }
+            for (String key : List.of(filterKey(grade, null), filterKey(null, subject), filterKey(grade, subject))) {
+                RankingBuilder builder = filtered.computeIfAbsent(key, k -> new RankingBuilder());
+                if (builder.bookIds.size() < rankingSize) {
+                    builder.bookIds.add(entry[0]);
+                    builder.quantities.add(entry[1]);
+                }
+            }
+        }
+        Map<String, Ranking> rankings = new HashMap<>(filtered.size());
+        filtered.forEach((key, builder) -> rankings.put(key, builder.build(Map.of())));
+        
+        RankingBuilder overall = new RankingBuilder();
+        for (int i = 0; i < Math.min(entries.size(), rankingSize); i++) {
+            overall.bookIds.add(entries.get(i)[0]);
+            overall.quantities.add(entries.get(i)[1]);
+        }
+        ranking = overall.build(rankings);
+    }
+    
+    // Looks up grade and subject for counters that have not seen their book yet, a batch at a time
+    private void resolveBooks() {
+        List<Long> unresolved = new ArrayList<>();
+        counters.forEach((bookId, counter) -> {
+            if (!counter.resolved) {
+                unresolved.add(bookId);
+            }
+        });
+        for (int start = 0; start < unresolved.size(); start += RESOLVE_BATCH_SIZE) {
+            List<Long> ids = unresolved.subList(start, Math.min(unresolved.size(), start + RESOLVE_BATCH_SIZE));
+            for (Object[] row : bookRepository.findGradesAndSubjectsByIdIn(ids)) {
+                Counter counter = counters.get((Long) row[0]);
+                if (counter != null && !counter.resolved) {
+                    counter.grade = (String) row[1];
+                    counter.subject = (String) row[2];
+                }
+            }
+            // Books that were not found have been deleted; they stay out of the grade and subject rankings
+            for (Long id : ids) {
+                Counter counter = counters.get(id);
+                if (counter != null) {
+                    counter.resolved = true;
+                }
+            }
+        }
+    }
+    
+    private static String filterKey(String grade, String subject) {
+        return (grade == null ? "" : grade) + '\u0000' + (subject == null ? "" : subject);
+    }
+    
+    private static class Counter {
+        private final LongAdder total = new LongAdder();
+        // Value last written to book_sales; only touched while holding the flush lock
+        private long flushed;
+        // The book's grade and subject once looked up or seen in a BookChangedEvent; null if deleted
+        private volatile String grade;
+        private volatile String subject;
+        private volatile boolean resolved;
+    }
+    
+    private static class RankingBuilder {
+        private final List<Long> bookIds = new ArrayList<>();
+        private final List<Long> quantities = new ArrayList<>();
+        
+        private Ranking build(Map<String, Ranking> filtered) {
+            return new Ranking(bookIds.stream().mapToLong(Long::longValue).toArray(),
+                    quantities.stream().mapToLong(Long::longValue).toArray(), filtered);
+        }
+    }
+    
+    public static class Ranking {
+        private final long[] bookIds;
+        private final long[] quantities;
+        // Rankings by grade, subject and both, keyed by filterKey; only set on the overall ranking
+        private final Map<String, Ranking> filtered;
+        
+        private Ranking(long[] bookIds, long[] quantities, Map<String, Ranking> filtered) {
+            this.bookIds = bookIds;
+            this.quantities = quantities;
+            this.filtered = filtered;
+        }
+        
+        public int size() {
+            return bookIds.length;
+        }
+        
+        public long bookId(int rank) {
+            return bookIds[rank];
+        }
+        
+        public long quantity(int rank) {
+            return quantities[rank];
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.educonnect.services;
+
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.models.Book;
+import com.educonnect.repositories.BookRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book title, author and subject.
+ * Title matches are weighted above author and subject matches, and query
+ * terms also match indexed terms they are a prefix of (at a lower weight).
+ * A rebuild reads the catalog into a new index while searches keep using the
+ * current one; changes made meanwhile are replayed onto it before the swap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+    
+    private static final int TITLE_WEIGHT = 6;
+    private static final int AUTHOR_WEIGHT = 2;
+    private static final int SUBJECT_WEIGHT = 2;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    
+    // Highest score first, then lowest id
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingInt(Hit::getScore).reversed().thenComparing(Hit::getBookId);
+    
+    private final BookRepository bookRepository;
+    
+    private Terms terms = new Terms();
+    // Books changed while a rebuild is reading the catalog, null for deleted ones; null when no rebuild runs
+    private Map<Long, Book> changedDuringRebuild;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Terms rebuilt = new Terms();
+        boolean complete = false;
+        try {
+            long lastId = 0L;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+                for (Book book : batch) {
+                    rebuilt.addDocument(book);
+                    lastId = book.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    changedDuringRebuild.forEach((bookId, book) -> {
+                        rebuilt.removeDocument(bookId);
+                        if (book != null) {
+                            rebuilt.addDocument(book);
+                        }
+                    });
+                    terms = rebuilt;
+                }
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Book search index built: {} books, {} terms", rebuilt.documentTerms.size(), rebuilt.postings.size());
+    }
+    
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.ChangeType.DELETED) {
+            remove(event.getBook().getId());
+        } else {
+            index(event.getBook());
+        }
+    }
+    
+    public void index(Book book) {
+        lock.writeLock().lock();
+        try {
+            terms.removeDocument(book.getId());
+            terms.addDocument(book);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(book.getId(), book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            terms.removeDocument(bookId);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(bookId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} best matching books ranked strictly after
+     * {@code after} (or from the top when it is null), highest score first.
+     * Every query term must match (AND semantics); ties are broken by id.
+     */
+    public SearchHits search(String query, Hit after, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new SearchHits(Collections.emptyList(), 0);
+        }
+        
+        Map<Long, Integer> scores;
+        lock.readLock().lock();
+        try {
+            scores = null;
+            for (String term : new LinkedHashSet<>(queryTerms)) {
+                Map<Long, Integer> termScores = terms.score(term);
+                scores = scores == null ? termScores : intersect(scores, termScores);
+                if (scores.isEmpty()) {
+                    return new SearchHits(Collections.emptyList(), 0);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        // Bounded min-heap: keeps only the top `limit` hits past the cursor
+        PriorityQueue<Hit> heap = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+            Hit hit = new Hit(entry.getKey(), entry.getValue());
+            if (after != null && RANKING.compare(hit, after) <= 0) {
+                continue;
+            }
+            heap.offer(hit);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        
+        List<Hit> top = new ArrayList<>(heap);
+        top.sort(RANKING);
+        return new SearchHits(top, scores.size());
+    }
+    
+    private Map<Long, Integer> intersect(Map<Long, Integer> left, Map<Long, Integer> right) {
+        Map<Long, Integer> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Integer> larger = smaller == left ? right : left;
+        Map<Long, Integer> result = new HashMap<>();
+        smaller.forEach((id, score) -> {
+            Integer other = larger.get(id);
+            if (other != null) {
+                result.put(id, score + other);
+            }
+        });
+        return result;
+    }
+    
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+    
+    // term -> (bookId -> field weight), plus the terms indexed per book so updates and deletes can unlink them
+    private static class Terms {
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+        
+        private Map<Long, Integer> score(String term) {
+            Map<Long, Integer> result = new HashMap<>();
+            Map<Long, Integer> exact = postings.get(term);
+            if (exact != null) {
+                // Exact matches count double so they outrank prefix expansions
+                exact.forEach((id, weight) -> result.merge(id, weight * 2, Math::max));
+            }
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(term, false, term + Character.MAX_VALUE, false).entrySet()) {
+                    entry.getValue().forEach((id, weight) -> result.merge(id, weight, Math::max));
+                }
+            }
+            return result;
+        }
+        
+        private void addDocument(Book book) {
+            Map<String, Integer> weights = new HashMap<>();
+            new HashSet<>(tokenize(book.getTitle())).forEach(term -> weights.merge(term, TITLE_WEIGHT, Integer::sum));
+            new HashSet<>(tokenize(book.getAuthor())).forEach(term -> weights.merge(term, AUTHOR_WEIGHT, Integer::sum));
+            new HashSet<>(tokenize(book.getSubject())).forEach(term -> weights.merge(term, SUBJECT_WEIGHT, Integer::sum));
+            
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(book.getId(), weight));
+            documentTerms.put(book.getId(), weights.keySet());
+        }
+        
+        private void removeDocument(Long bookId) {
+            Set<String> terms = documentTerms.remove(bookId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Integer> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(bookId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Data
+    @AllArgsConstructor
+    public static class Hit {
+        private long bookId;
+        private int score;
+    }
+    
+    @Data
+    @AllArgsConstructor
+    public static class SearchHits {
+        private List<Hit> hits;
+        private int totalHits;
+    }
+}
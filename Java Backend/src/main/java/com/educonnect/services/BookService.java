@@ -1,28 +1,70 @@
 package com.educonnect.services;
 
+import com.educonnect.dto.BookBrowseResponse;
 import com.educonnect.dto.BookDTO;
+import com.educonnect.dto.BookStockDTO;
+import com.educonnect.dto.BookSuggestion;
+import com.educonnect.dto.BookSummaryDTO;
 import com.educonnect.dto.CreateBookRequest;
+import com.educonnect.dto.CursorPage;
+import com.educonnect.dto.TopSellingBookDTO;
+import com.educonnect.events.BookChangedEvent;
 import com.educonnect.exceptions.ResourceNotFoundException;
 import com.educonnect.models.Book;
-import com.educonnect.models.User;
 import com.educonnect.repositories.BookRepository;
+import com.educonnect.security.UserPrincipal;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookService {
     
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCatalogCache catalogCache;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookSuggestIndex bookSuggestIndex;
+    private final BookSalesCounter bookSalesCounter;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String CSV_HEADER =
+            "id,title,grade,subject,author,isbn,price,publisherId,publisherName,description,coverImage,createdAt\n";
     
     @Transactional
-    public BookDTO createBook(CreateBookRequest request, User publisher) {
-        // Check if ISBN already exists
-        if (bookRepository.findByIsbn(request.getIsbn()).isPresent()) {
+    public BookDTO createBook(CreateBookRequest request, UserPrincipal publisher) {
+        // Check if ISBN already exists (answered from the catalog cache when possible)
+        if (catalogCache.isbnExists(request.getIsbn(), isbn -> bookRepository.findIdByIsbn(isbn).orElse(null))) {
             throw new IllegalArgumentException("Book with this ISBN already exists");
         }
         
@@ -34,47 +76,143 @@ public class BookService {
         book.setIsbn(request.getIsbn());
         book.setPrice(request.getPrice());
         book.setPublisherId(publisher.getId());
-        book.setPublisherName(publisher.getOrganizationName() != null ? 
-                publisher.getOrganizationName() : publisher.getName());
+        book.setPublisherName(publisher.getDisplayName());
         book.setDescription(request.getDescription());
         book.setCoverImage(request.getCoverImage());
         
         Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(new BookChangedEvent(savedBook, BookChangedEvent.ChangeType.CREATED));
         return mapToDTO(savedBook);
     }
     
-    public List<BookDTO> getAllBooks() {
-        return bookRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<BookSummaryDTO> getAllBooks(String cursor, int size) {
+        List<BookSummaryDTO> rows = bookRepository.findSummariesAfter(
+                CursorPage.decodeIdCursor(cursor), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Function.identity(), book -> book.getId().toString());
     }
     
     public BookDTO getBookById(Long id) {
-        Book book = bookRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
-        return mapToDTO(book);
+        return catalogCache.getBook(id, key -> bookRepository.findById(key)
+                .map(this::mapToDTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found")));
     }
     
-    public List<BookDTO> getBooksByPublisher(Long publisherId) {
-        return bookRepository.findByPublisherId(publisherId).stream()
-                .map(this::mapToDTO)
+    public CursorPage<BookSummaryDTO> getBooksByPublisher(Long publisherId, String cursor, int size) {
+        long[] bookIds = catalogCache.getPublisherBookIds(publisherId,
+                key -> bookRepository.findIdsByPublisherId(key).stream().mapToLong(Long::longValue).toArray());
+        
+        // Ids are sorted, so the page starts right after the cursor id
+        int start = Arrays.binarySearch(bookIds, CursorPage.decodeIdCursor(cursor));
+        start = start >= 0 ? start + 1 : -start - 1;
+        List<Long> rows = Arrays.stream(bookIds, start, Math.min(bookIds.length, start + size + 1))
+                .boxed()
                 .collect(Collectors.toList());
+        
+        Map<Long, BookSummaryDTO> books = catalogCache.getSummaries(rows.subList(0, Math.min(size, rows.size())), this::loadSummaries);
+        CursorPage<Long> page = CursorPage.of(rows, size, Function.identity(), String::valueOf);
+        List<BookSummaryDTO> items = page.getItems().stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new CursorPage<>(items, page.getNextCursor(), page.isHasMore());
     }
     
-    public List<BookDTO> searchBooks(String keyword) {
-        return bookRepository.searchBooks(keyword).stream()
-                .map(this::mapToDTO)
+    public CursorPage<BookSummaryDTO> searchBooks(String keyword, String cursor, int size) {
+        BookSearchIndex.SearchHits result = bookSearchIndex.search(keyword, decodeSearchCursor(cursor), size + 1);
+        List<BookSearchIndex.Hit> hits = result.getHits();
+        if (hits.isEmpty()) {
+            return new CursorPage<>(List.of(), null, false);
+        }
+        
+        // Load the page (cache misses in one query), then restore the index's ranking order
+        boolean hasMore = hits.size() > size;
+        List<BookSearchIndex.Hit> pageHits = hasMore ? hits.subList(0, size) : hits;
+        Map<Long, BookSummaryDTO> books = catalogCache.getSummaries(
+                pageHits.stream().map(BookSearchIndex.Hit::getBookId).toList(), this::loadSummaries);
+        List<BookSummaryDTO> items = pageHits.stream()
+                .map(hit -> books.get(hit.getBookId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        
+        BookSearchIndex.Hit last = pageHits.get(pageHits.size() - 1);
+        String next = hasMore ? CursorPage.encodeCursor(last.getScore() + ":" + last.getBookId()) : null;
+        return new CursorPage<>(items, next, hasMore);
+    }
+    
+    private Map<Long, BookSummaryDTO> loadSummaries(Set<? extends Long> ids) {
+        return bookRepository.findSummariesByIdIn(new ArrayList<Long>(ids)).stream()
+                .collect(Collectors.toMap(BookSummaryDTO::getId, Function.identity()));
+    }
+    
+    public List<BookSuggestion> suggestBooks(String prefix, int limit) {
+        return bookSuggestIndex.suggest(prefix, limit);
+    }
+    
+    /**
+     * Best sellers matching the optional grade and subject, walking the
+     * sales ranking maintained for that filter and resolving books through
+     * the catalog cache.
+     */
+    public List<TopSellingBookDTO> getTopSellingBooks(String grade, String subject, int limit) {
+        BookSalesCounter.Ranking ranking = bookSalesCounter.getRanking(grade, subject);
+        List<TopSellingBookDTO> result = new ArrayList<>(limit);
+        // Only books deleted or re-filed since the last flush are skipped, so the first chunk is nearly always enough
+        int chunkSize = limit + 8;
+        for (int start = 0; start < ranking.size() && result.size() < limit; start += chunkSize) {
+            int end = Math.min(ranking.size(), start + chunkSize);
+            List<Long> ids = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                ids.add(ranking.bookId(i));
+            }
+            Map<Long, BookSummaryDTO> books = catalogCache.getSummaries(ids, this::loadSummaries);
+            for (int i = start; i < end && result.size() < limit; i++) {
+                // Deleted books are simply missing from the summaries
+                BookSummaryDTO book = books.get(ranking.bookId(i));
+                if (book != null && (grade == null || grade.equals(book.getGrade()))
+                        && (subject == null || subject.equals(book.getSubject()))) {
+                    result.add(new TopSellingBookDTO(book, ranking.quantity(i)));
+                }
+            }
+        }
+        return result;
+    }
+    
+    public BookBrowseResponse browseBooks(String grade, String subject, Long publisherId,
+                                          BigDecimal minPrice, BigDecimal maxPrice,
+                                          String cursor, int size) {
+        BookFacetIndex.BrowseHits hits = bookFacetIndex.browse(grade, subject, publisherId, minPrice, maxPrice,
+                CursorPage.decodeIdCursor(cursor), size + 1);
+        List<Long> ids = hits.getBookIds();
+        Map<Long, BookSummaryDTO> books = catalogCache.getSummaries(ids.subList(0, Math.min(size, ids.size())), this::loadSummaries);
+        CursorPage<Long> idPage = CursorPage.of(ids, size, Function.identity(), String::valueOf);
+        List<BookSummaryDTO> items = idPage.getItems().stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return new BookBrowseResponse(new CursorPage<>(items, idPage.getNextCursor(), idPage.isHasMore()),
+                hits.getTotalMatches(), hits.getFacetCounts());
+    }
+    
+    // Search cursors hold the "score:id" of the last hit returned
+    private BookSearchIndex.Hit decodeSearchCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = CursorPage.decodeCursor(cursor).split(":");
+        try {
+            return new BookSearchIndex.Hit(Long.parseLong(parts[1]), Integer.parseInt(parts[0]));
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
     }
     
     @Transactional
-    public BookDTO updateBook(Long id, CreateBookRequest request, User publisher) {
+    public BookDTO updateBook(Long id, CreateBookRequest request, UserPrincipal publisher) {
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
         
         // Ensure publisher owns this book
-        if (!book.getPublisherId().equals(publisher.getId()) && 
-            publisher.getRole() != User.UserRole.ADMIN) {
+        if (!book.getPublisherId().equals(publisher.getId()) && !publisher.isAdmin()) {
             throw new IllegalArgumentException("Unauthorized to update this book");
         }
         
@@ -88,19 +226,90 @@ public class BookService {
             book.setCoverImage(request.getCoverImage());
         }
         
-        Book updatedBook = bookRepository.save(book);
+        Book updatedBook = bookRepository.saveAndFlush(book);
+        eventPublisher.publishEvent(new BookChangedEvent(updatedBook, BookChangedEvent.ChangeType.UPDATED));
         return mapToDTO(updatedBook);
     }
     
+    public BookStockDTO getStock(Long id) {
+        getBookById(id);
+        Long available = stockService.getAvailable(id);
+        return new BookStockDTO(id, available != null, available != null ? available : 0);
+    }
+    
+    @Transactional
+    public BookStockDTO updateStock(Long id, int quantity, UserPrincipal publisher) {
+        BookDTO book = getBookById(id);
+        if (!book.getPublisherId().equals(publisher.getId()) && !publisher.isAdmin()) {
+            throw new IllegalArgumentException("Unauthorized to update this book");
+        }
+        stockService.setStock(id, quantity);
+        return new BookStockDTO(id, true, quantity);
+    }
+    
     @Transactional
     public void deleteBook(Long id) {
-        if (!bookRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Book not found");
+        Book book = bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found"));
+        bookRepository.delete(book);
+        eventPublisher.publishEvent(new BookChangedEvent(book, BookChangedEvent.ChangeType.DELETED));
+    }
+    
+    /**
+     * Streams the whole catalog to {@code out} in id order without holding it
+     * in memory: rows come from a server-side cursor and the persistence
+     * context is cleared every EXPORT_CHUNK_SIZE rows.
+     */
+    @Transactional(readOnly = true)
+    public void exportBooks(OutputStream out, ExportFormat format) throws IOException {
+        ObjectWriter jsonWriter = objectMapper.writerFor(BookDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        BufferedOutputStream buffer = new BufferedOutputStream(out, 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            buffer.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
         }
-        bookRepository.deleteById(id);
+        
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            Iterator<Book> iterator = books.iterator();
+            int count = 0;
+            while (iterator.hasNext()) {
+                BookDTO dto = mapToDTO(iterator.next());
+                if (format == ExportFormat.CSV) {
+                    buffer.write(toCsvRow(dto).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    jsonWriter.writeValue(buffer, dto);
+                    buffer.write('\n');
+                }
+                if (++count % EXPORT_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                    buffer.flush();
+                }
+            }
+        }
+        buffer.flush();
+    }
+    
+    private String toCsvRow(BookDTO dto) {
+        return String.join(",",
+                CsvUtils.escape(dto.getId()),
+                CsvUtils.escape(dto.getTitle()),
+                CsvUtils.escape(dto.getGrade()),
+                CsvUtils.escape(dto.getSubject()),
+                CsvUtils.escape(dto.getAuthor()),
+                CsvUtils.escape(dto.getIsbn()),
+                CsvUtils.escape(dto.getPrice()),
+                CsvUtils.escape(dto.getPublisherId()),
+                CsvUtils.escape(dto.getPublisherName()),
+                CsvUtils.escape(dto.getDescription()),
+                CsvUtils.escape(dto.getCoverImage()),
+                CsvUtils.escape(dto.getCreatedAt())) + "\n";
+    }
+    
+    public enum ExportFormat {
+        NDJSON, CSV
     }
     
-    private BookDTO mapToDTO(Book book) {
+    BookDTO mapToDTO(Book book) {
         BookDTO dto = new BookDTO();
         dto.setId(book.getId());
         dto.setTitle(book.getTitle());
@@ -114,6 +323,8 @@ public class BookService {
         dto.setDescription(book.getDescription());
         dto.setCoverImage(book.getCoverImage());
         dto.setCreatedAt(book.getCreatedAt());
+        dto.setUpdatedAt(book.getUpdatedAt());
+        dto.setVersion(book.getVersion());
         return dto;
     }
 }
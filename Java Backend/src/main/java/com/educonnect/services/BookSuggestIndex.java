@@ -0,0 +1,498 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.BookSuggestion;
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.events.BookSalesFlushedEvent;
+import com.educonnect.models.Book;
+import com.educonnect.repositories.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over book titles, authors and publisher names. Phrases live in a
+ * radix trie: runs of characters without a branch share one node and one
+ * String label, so memory follows the number of distinct phrases rather than
+ * their total length. Children are kept in sorted arrays keyed by their first
+ * character, and every node records the highest weight in its subtree, so
+ * the top suggestions for a prefix are found best-first without visiting the
+ * whole subtree.
+ * A phrase is weighed by the units sold of the books that carry it, from
+ * BookSalesCounter, and then by the number of those books, so best sellers
+ * come first and unsold phrases fall back to how common they are. Sales are
+ * brought up to date on every BookSalesFlushedEvent.
+ * <p>
+ * A rebuild reads the catalog into a new trie while suggestions keep using
+ * the current one; changes made meanwhile are replayed onto it before the
+ * swap.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSuggestIndex {
+    
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final BookSuggestion.Type[] TYPES = BookSuggestion.Type.values();
+    // Low bits of a weight hold the book count, the rest the units sold
+    private static final int BOOK_BITS = 24;
+    private static final long MAX_BOOKS = (1L << BOOK_BITS) - 1;
+    private static final long MAX_UNITS = Long.MAX_VALUE >>> BOOK_BITS;
+    
+    private final BookRepository bookRepository;
+    private final BookSalesCounter bookSalesCounter;
+    
+    private Trie trie = new Trie();
+    // Books changed while a rebuild is reading the catalog, null for deleted ones; null when no rebuild runs
+    private Map<Long, Book> changedDuringRebuild;
+    // Sales totals flushed while a rebuild is reading the catalog; null when no rebuild runs
+    private Map<Long, Long> salesDuringRebuild;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+            salesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        Trie rebuilt = new Trie();
+        boolean complete = false;
+        try {
+            long lastId = 0L;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+                for (Book book : batch) {
+                    rebuilt.addDocument(book, bookSalesCounter.getUnitsSold(book.getId()));
+                    lastId = book.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    changedDuringRebuild.forEach((bookId, book) -> {
+                        rebuilt.removeDocument(bookId);
+                        if (book != null) {
+                            rebuilt.addDocument(book, bookSalesCounter.getUnitsSold(bookId));
+                        }
+                    });
+                    salesDuringRebuild.forEach(rebuilt::updateSales);
+                    trie = rebuilt;
+                }
+                changedDuringRebuild = null;
+                salesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Book suggest index built: {} books", rebuilt.documents.size());
+    }
+    
+    @TransactionalEventListener
+    public void onBookChanged(BookChangedEvent event) {
+        Book book = event.getType() == BookChangedEvent.ChangeType.DELETED ? null : event.getBook();
+        Long bookId = event.getBook().getId();
+        lock.writeLock().lock();
+        try {
+            trie.removeDocument(bookId);
+            if (book != null) {
+                trie.addDocument(book, bookSalesCounter.getUnitsSold(bookId));
+            }
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(bookId, book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @EventListener
+    public void onSalesFlushed(BookSalesFlushedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getUnitsSold().forEach(trie::updateSales);
+            if (salesDuringRebuild != null) {
+                salesDuringRebuild.putAll(event.getUnitsSold());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns up to {@code limit} phrases starting with {@code prefix}
+     * (case-insensitive), heaviest first.
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        lock.readLock().lock();
+        try {
+            // The prefix may end part-way along an edge; everything below that edge still matches
+            Node node = trie.root;
+            int matched = 0;
+            while (node != null && matched < key.length()) {
+                Node child = node.child(key.charAt(matched));
+                if (child == null || !key.regionMatches(matched, child.label, 0,
+                        Math.min(child.label.length(), key.length() - matched))) {
+                    node = null;
+                } else {
+                    node = child;
+                    matched += child.label.length();
+                }
+            }
+            if (node == null || node.maxWeight == 0) {
+                return Collections.emptyList();
+            }
+            
+            // Best-first walk: a subtree is only opened once nothing already queued can beat it
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(new Candidate(node, null, node.maxWeight));
+            List<BookSuggestion> result = new ArrayList<>(limit);
+            while (!queue.isEmpty() && result.size() < limit) {
+                Candidate next = queue.poll();
+                if (next.entry != null) {
+                    result.add(new BookSuggestion(next.entry.display, next.entry.type, next.entry.count, next.entry.unitsSold));
+                    continue;
+                }
+                Node current = next.node;
+                if (current.entries != null) {
+                    for (Entry entry : current.entries) {
+                        if (entry != null) {
+                            queue.add(new Candidate(null, entry, entry.weight()));
+                        }
+                    }
+                }
+                for (int i = 0; i < current.size; i++) {
+                    queue.add(new Candidate(current.children[i], null, current.children[i].maxWeight));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    // Orders by units sold, then by book count, with both packed into one long
+    private static long weight(long unitsSold, int books) {
+        return Math.min(unitsSold, MAX_UNITS) << BOOK_BITS | Math.min(books, MAX_BOOKS);
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        // Trailing whitespace is kept (as one space) so "john " only matches whole words
+        return text.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").stripLeading();
+    }
+    
+    // The radix trie plus the phrases and sales indexed per book; swapped whole by a rebuild
+    private static class Trie {
+        private final Node root = new Node("");
+        // bookId -> phrases and sales indexed for it, so updates and deletes can release them
+        private final Map<Long, Document> documents = new HashMap<>();
+        
+        private void addDocument(Book book, long unitsSold) {
+            Document document = new Document(Math.max(0L, unitsSold));
+            addPhrase(document, BookSuggestion.Type.TITLE, book.getTitle());
+            addPhrase(document, BookSuggestion.Type.AUTHOR, book.getAuthor());
+            addPhrase(document, BookSuggestion.Type.PUBLISHER, book.getPublisherName());
+            documents.put(book.getId(), document);
+        }
+        
+        private void addPhrase(Document document, BookSuggestion.Type type, String text) {
+            String key = normalize(text).stripTrailing();
+            if (key.isEmpty()) {
+                return;
+            }
+            
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int matched = 0;
+            while (matched < key.length()) {
+                Node child = node.child(key.charAt(matched));
+                if (child == null) {
+                    child = node.addChild(key.substring(matched));
+                    matched = key.length();
+                } else {
+                    int common = commonPrefixLength(child.label, key, matched);
+                    if (common < child.label.length()) {
+                        child = node.split(child, common);
+                    }
+                    matched += common;
+                }
+                node = child;
+                path.add(node);
+            }
+            if (node.entries == null) {
+                node.entries = new Entry[TYPES.length];
+            }
+            Entry entry = node.entries[type.ordinal()];
+            if (entry == null) {
+                entry = new Entry(type, text.trim());
+                node.entries[type.ordinal()] = entry;
+            }
+            entry.count++;
+            entry.unitsSold += document.unitsSold;
+            
+            // Weights only grow here, so raising the path maxima is enough
+            long weight = entry.weight();
+            for (Node step : path) {
+                step.maxWeight = Math.max(step.maxWeight, weight);
+            }
+            document.phrases.add(new Phrase(type, key));
+        }
+        
+        private void removeDocument(Long bookId) {
+            Document document = documents.remove(bookId);
+            if (document == null) {
+                return;
+            }
+            for (Phrase phrase : document.phrases) {
+                adjustPhrase(phrase, -1, -document.unitsSold);
+            }
+        }
+        
+        // Applies a change in book count and units sold to an indexed phrase, dropping it when no book is left
+        private void adjustPhrase(Phrase phrase, int countDelta, long unitsDelta) {
+            List<Node> path = new ArrayList<>();
+            Node node = root;
+            path.add(node);
+            int matched = 0;
+            while (matched < phrase.key.length()) {
+                node = node.child(phrase.key.charAt(matched));
+                if (node == null || !phrase.key.startsWith(node.label, matched)) {
+                    return;
+                }
+                matched += node.label.length();
+                path.add(node);
+            }
+            Entry entry = node.entries == null ? null : node.entries[phrase.type.ordinal()];
+            if (entry == null) {
+                return;
+            }
+            entry.count += countDelta;
+            entry.unitsSold += unitsDelta;
+            if (entry.count == 0) {
+                node.entries[phrase.type.ordinal()] = null;
+            }
+            
+            // Recompute maxima bottom-up, prune branches that no longer lead anywhere and
+            // fold nodes left with a single child and no phrase back into that child
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node step = path.get(i);
+                Node parent = path.get(i - 1);
+                step.recomputeMaxWeight();
+                if (step.maxWeight == 0) {
+                    parent.removeChild(step);
+                } else if (step.size == 1 && !step.hasEntries()) {
+                    parent.replaceChild(step, step.mergeWithChild());
+                }
+            }
+            root.recomputeMaxWeight();
+        }
+        
+        private void updateSales(Long bookId, long total) {
+            Document document = documents.get(bookId);
+            long unitsSold = Math.max(0L, total);
+            if (document == null || document.unitsSold == unitsSold) {
+                return;
+            }
+            long delta = unitsSold - document.unitsSold;
+            document.unitsSold = unitsSold;
+            for (Phrase phrase : document.phrases) {
+                adjustPhrase(phrase, 0, delta);
+            }
+        }
+    }
+    
+    // A radix-tree node; label is the text on the edge leading to it, children are keyed by their first character
+    private static class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        // Indexed by BookSuggestion.Type ordinal; null until a phrase ends here
+        private Entry[] entries;
+        private long maxWeight;
+        
+        private Node(String label) {
+            this.label = label;
+        }
+        
+        private Node child(char first) {
+            int index = Arrays.binarySearch(keys, 0, size, first);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        private Node addChild(String childLabel) {
+            int insertAt = -Arrays.binarySearch(keys, 0, size, childLabel.charAt(0)) - 1;
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+            System.arraycopy(children, insertAt, children, insertAt + 1, size - insertAt);
+            Node node = new Node(childLabel);
+            keys[insertAt] = childLabel.charAt(0);
+            children[insertAt] = node;
+            size++;
+            return node;
+        }
+        
+        // Cuts the edge to child after length characters and returns the node inserted there
+        private Node split(Node child, int length) {
+            Node middle = new Node(child.label.substring(0, length));
+            replaceChild(child, middle);
+            child.label = child.label.substring(length);
+            middle.keys = new char[]{child.label.charAt(0)};
+            middle.children = new Node[]{child};
+            middle.size = 1;
+            middle.maxWeight = child.maxWeight;
+            return middle;
+        }
+        
+        private void replaceChild(Node child, Node replacement) {
+            children[Arrays.binarySearch(keys, 0, size, child.label.charAt(0))] = replacement;
+        }
+        
+        private void removeChild(Node child) {
+            int index = Arrays.binarySearch(keys, 0, size, child.label.charAt(0));
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            size--;
+            children[size] = null;
+            if (size == 0) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+            }
+        }
+        
+        // For a node with one child and no phrase: the child, now reached by both edges' text
+        private Node mergeWithChild() {
+            Node child = children[0];
+            child.label = label + child.label;
+            return child;
+        }
+        
+        private boolean hasEntries() {
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    if (entry != null) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        
+        private void recomputeMaxWeight() {
+            long max = 0;
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    if (entry != null) {
+                        max = Math.max(max, entry.weight());
+                    }
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, children[i].maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+    
+    private static class Entry {
+        private final BookSuggestion.Type type;
+        // Original casing of the first book seen with this phrase
+        private final String display;
+        private int count;
+        private long unitsSold;
+        
+        private Entry(BookSuggestion.Type type, String display) {
+            this.type = type;
+            this.display = display;
+        }
+        
+        private long weight() {
+            return BookSuggestIndex.weight(unitsSold, count);
+        }
+    }
+    
+    private static class Document {
+        private final List<Phrase> phrases = new ArrayList<>(3);
+        private long unitsSold;
+        
+        private Document(long unitsSold) {
+            this.unitsSold = unitsSold;
+        }
+    }
+    
+    private static class Phrase {
+        private final BookSuggestion.Type type;
+        private final String key;
+        
+        private Phrase(BookSuggestion.Type type, String key) {
+            this.type = type;
+            this.key = key;
+        }
+    }
+    
+    private static class Candidate implements Comparable<Candidate> {
+        private final Node node;
+        private final Entry entry;
+        private final long weight;
+        
+        private Candidate(Node node, Entry entry, long weight) {
+            this.node = node;
+            this.entry = entry;
+            this.weight = weight;
+        }
+        
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Long.compare(other.weight, weight);
+            if (byWeight != 0) {
+                return byWeight;
+            }
+            // At equal weight emit phrases before opening more subtrees
+            if ((entry == null) != (other.entry == null)) {
+                return entry == null ? 1 : -1;
+            }
+            return entry == null ? 0 : entry.display.compareToIgnoreCase(other.entry.display);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.educonnect.services;
+
+import com.educonnect.exceptions.ServiceBusyException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of requests sent with an Idempotency-Key so
+ * retries are answered from memory instead of being executed again. Each
+ * key also stores a digest of the request it was first used with. While the
+ * first request is still running, duplicates wait for its result.
+ * <p>
+ * A finished request is kept as its status and serialized JSON body; bodies
+ * over idempotency.max-body-size keep only the status. The store is bounded
+ * by the bytes it holds (idempotency.max-size). Requests still running weigh
+ * nothing, which Caffeine never evicts, so a retry cannot run them twice.
+ */
+@Component
+public class IdempotencyStore {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    // Rough heap cost of an entry besides its body: key, digest, future and cache node
+    private static final int ENTRY_OVERHEAD = 256;
+    
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final int maxBodySize;
+    // scope + key -> request digest and (eventual) response
+    private final Cache<String, Entry> entries;
+    
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            @Value("${idempotency.ttl}") Duration ttl,
+                            @Value("${idempotency.max-size}") DataSize maxSize,
+                            @Value("${idempotency.max-body-size}") DataSize maxBodySize,
+                            @Value("${idempotency.wait-timeout}") Duration waitTimeout,
+                            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+        this.maxBodySize = (int) maxBodySize.toBytes();
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, Entry entry) -> entry.weight(key))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+    
+    /**
+     * Runs {@code action} once per {@code scope} and {@code key}; repeats
+     * get the stored response back with an Idempotent-Replayed header.
+     * Without a key the action simply runs. Failures and non-2xx responses
+     * are not stored, so the client can retry them.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String cacheKey = scope + '\n' + key;
+        Entry entry = new Entry(digest(request));
+        ConcurrentMap<String, Entry> map = entries.asMap();
+        Entry existing = map.putIfAbsent(cacheKey, entry);
+        if (existing == null) {
+            return run(cacheKey, entry, action);
+        }
+        
+        if (!Arrays.equals(existing.requestDigest, entry.requestDigest)) {
+            throw new IllegalArgumentException(HEADER + " has already been used for a different request");
+        }
+        return replay(await(existing));
+    }
+    
+    private <T> ResponseEntity<T> run(String cacheKey, Entry entry, Supplier<ResponseEntity<T>> action) {
+        ResponseEntity<T> response;
+        StoredResponse stored;
+        try {
+            response = action.get();
+            stored = store(response);
+        } catch (RuntimeException e) {
+            entries.asMap().remove(cacheKey, entry);
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            // Caffeine weighs an entry when it is written, so the replacement must already hold the result
+            entries.asMap().replace(cacheKey, entry,
+                    new Entry(entry.requestDigest, CompletableFuture.completedFuture(stored)));
+        } else {
+            entries.asMap().remove(cacheKey, entry);
+        }
+        entry.response.complete(stored);
+        return response;
+    }
+    
+    // Bytes held by stored responses once pending evictions have run, for tests
+    long weightedSize() {
+        entries.cleanUp();
+        return entries.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+    
+    private StoredResponse store(ResponseEntity<?> response) {
+        byte[] body = null;
+        if (response.getBody() != null) {
+            try {
+                body = objectMapper.writeValueAsBytes(response.getBody());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Response cannot be serialized", e);
+            }
+            if (body.length > maxBodySize) {
+                body = null;
+            }
+        }
+        return new StoredResponse(response.getStatusCode().value(), body);
+    }
+    
+    // The stored JSON is written out as is, whatever body type the caller declares
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> replay(StoredResponse stored) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true");
+        if (stored.body == null) {
+            return builder.build();
+        }
+        return (ResponseEntity<T>) builder.contentType(MediaType.APPLICATION_JSON)
+                .body(new RawValue(new String(stored.body, StandardCharsets.UTF_8)));
+    }
+    
+    private StoredResponse await(Entry entry) {
+        try {
+            return entry.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // Duplicates that waited on a failed attempt fail the same way
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("A request with this " + HEADER + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for a request with the same " + HEADER);
+        }
+    }
+    
+    private byte[] digest(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be serialized", e);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static class Entry {
+        private final byte[] requestDigest;
+        private final CompletableFuture<StoredResponse> response;
+        
+        private Entry(byte[] requestDigest) {
+            this(requestDigest, new CompletableFuture<>());
+        }
+        
+        private Entry(byte[] requestDigest, CompletableFuture<StoredResponse> response) {
+            this.requestDigest = requestDigest;
+            this.response = response;
+        }
+        
+        // Zero while the request runs, which keeps it out of size-based eviction
+        private int weight(String key) {
+            StoredResponse stored = response.getNow(null);
+            if (stored == null) {
+                return 0;
+            }
+            return ENTRY_OVERHEAD + 2 * key.length() + (stored.body == null ? 0 : stored.body.length);
+        }
+    }
+    
+    private static class StoredResponse {
+        private final int status;
+        // JSON as first sent, or null when there was none or it was over max-body-size
+        private final byte[] body;
+        
+        private StoredResponse(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
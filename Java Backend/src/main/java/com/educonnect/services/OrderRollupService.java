@@ -0,0 +1,174 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.OrderAnalyticsDTO;
+import com.educonnect.dto.OrderDTO;
+import com.educonnect.events.OrderChangedEvent;
+import com.educonnect.models.Order;
+import com.educonnect.models.OrderRollup;
+import com.educonnect.repositories.OrderRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Keeps per-day order rollups (whole shop, per school, per publisher) in step
+ * with orders. Every order change moves the order's contribution from its old
+ * status bucket to the new one with a few additive upserts, in the same
+ * transaction, so the rollups always agree with the orders table.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderRollupService {
+    
+    private static final long MAX_RANGE_DAYS = 3660;
+    private static final Long ALL_ID = 0L;
+    private static final String UPSERT_SQL =
+            "INSERT INTO order_rollups (dimension, dimension_id, order_date, status, payment_status, order_count, units, amount) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "units = units + VALUES(units), amount = amount + VALUES(amount)";
+    // Rebuild from history; the placeholders are the dimension id expression and its GROUP BY prefix
+    private static final String REBUILD_ORDERS_SQL =
+            "INSERT INTO order_rollups (dimension, dimension_id, order_date, status, payment_status, order_count, units, amount) " +
+            "SELECT ?, %s, CAST(o.created_at AS DATE), o.status, o.payment_status, COUNT(*), SUM(u.units), SUM(o.total) " +
+            "FROM orders o JOIN (SELECT order_id, SUM(quantity) AS units FROM order_items GROUP BY order_id) u ON u.order_id = o.id " +
+            "GROUP BY %sCAST(o.created_at AS DATE), o.status, o.payment_status";
+    private static final String REBUILD_PUBLISHERS_SQL =
+            "INSERT INTO order_rollups (dimension, dimension_id, order_date, status, payment_status, order_count, units, amount) " +
+            "SELECT ?, oi.publisher_id, CAST(o.created_at AS DATE), o.status, o.payment_status, COUNT(DISTINCT o.id), " +
+            "SUM(oi.quantity), SUM(oi.quantity * oi.price) " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id WHERE oi.publisher_id IS NOT NULL " +
+            "GROUP BY oi.publisher_id, CAST(o.created_at AS DATE), o.status, o.payment_status";
+    
+    // Rows touched by one change are written in this order so concurrent orders cannot deadlock
+    private static final Comparator<Object[]> ROW_ORDER = Comparator
+            .<Object[], String>comparing(row -> (String) row[0])
+            .thenComparing(row -> (Long) row[1])
+            .thenComparing(row -> (String) row[3])
+            .thenComparing(row -> (String) row[4]);
+    
+    private final OrderRollupRepository orderRollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    // Synchronous: runs inside the transaction that changed the order
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        OrderDTO order = event.getOrder();
+        if (event.getType() != OrderChangedEvent.ChangeType.CREATED
+                && event.getPreviousStatus() == order.getStatus()
+                && event.getPreviousPaymentStatus() == order.getPaymentStatus()) {
+            return;
+        }
+        
+        List<Object[]> rows = new ArrayList<>();
+        if (event.getType() != OrderChangedEvent.ChangeType.CREATED) {
+            addRows(rows, order, event.getPreviousStatus(), event.getPreviousPaymentStatus(), -1);
+        }
+        addRows(rows, order, order.getStatus(), order.getPaymentStatus(), 1);
+        rows.sort(ROW_ORDER);
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+    
+    private void addRows(List<Object[]> rows, OrderDTO order, Order.OrderStatus status,
+                         Order.PaymentStatus paymentStatus, int sign) {
+        Date date = Date.valueOf(order.getCreatedAt().toLocalDate());
+        long units = 0;
+        Map<Long, long[]> publisherUnits = new HashMap<>();
+        Map<Long, BigDecimal> publisherAmounts = new HashMap<>();
+        for (OrderDTO.Item item : order.getItems()) {
+            units += item.getQuantity();
+            if (item.getPublisherId() != null) {
+                publisherUnits.computeIfAbsent(item.getPublisherId(), id -> new long[1])[0] += item.getQuantity();
+                publisherAmounts.merge(item.getPublisherId(),
+                        item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())), BigDecimal::add);
+            }
+        }
+        
+        rows.add(row(OrderRollup.Dimension.ALL, ALL_ID, date, status, paymentStatus, sign, units, order.getTotal()));
+        rows.add(row(OrderRollup.Dimension.SCHOOL, order.getSchoolId(), date, status, paymentStatus, sign, units, order.getTotal()));
+        publisherUnits.forEach((publisherId, publisherUnitCount) -> rows.add(row(OrderRollup.Dimension.PUBLISHER,
+                publisherId, date, status, paymentStatus, sign, publisherUnitCount[0], publisherAmounts.get(publisherId))));
+    }
+    
+    private static Object[] row(OrderRollup.Dimension dimension, Long dimensionId, Date date, Order.OrderStatus status,
+                                Order.PaymentStatus paymentStatus, int sign, long units, BigDecimal amount) {
+        return new Object[]{dimension.name(), dimensionId, date, status.name(), paymentStatus.name(),
+                (long) sign, sign * units, amount.multiply(BigDecimal.valueOf(sign))};
+    }
+    
+    /**
+     * Order figures for orders placed between {@code from} and {@code to},
+     * summed from at most one rollup row per day and status combination.
+     */
+    @Transactional(readOnly = true)
+    public OrderAnalyticsDTO getOrderAnalytics(OrderRollup.Dimension dimension, Long dimensionId,
+                                               LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        List<OrderRollup> rollups = orderRollupRepository.findByDimensionAndDimensionIdAndOrderDateBetweenOrderByOrderDate(
+                dimension, dimension == OrderRollup.Dimension.ALL ? ALL_ID : dimensionId, from, to);
+        
+        Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+        Map<Order.PaymentStatus, Long> byPaymentStatus = new EnumMap<>(Order.PaymentStatus.class);
+        Map<LocalDate, OrderAnalyticsDTO.Day> days = new LinkedHashMap<>();
+        for (OrderRollup rollup : rollups) {
+            // Buckets every order has moved out of
+            if (rollup.getOrderCount() == 0) {
+                continue;
+            }
+            byStatus.merge(rollup.getStatus(), rollup.getOrderCount(), Long::sum);
+            byPaymentStatus.merge(rollup.getPaymentStatus(), rollup.getOrderCount(), Long::sum);
+            
+            OrderAnalyticsDTO.Day day = days.computeIfAbsent(rollup.getOrderDate(),
+                    date -> new OrderAnalyticsDTO.Day(date, 0, 0, BigDecimal.ZERO));
+            day.setOrders(day.getOrders() + rollup.getOrderCount());
+            if (rollup.getStatus() != Order.OrderStatus.CANCELLED) {
+                day.setUnits(day.getUnits() + rollup.getUnits());
+            }
+            if (rollup.getPaymentStatus() == Order.PaymentStatus.COMPLETED) {
+                day.setRevenue(day.getRevenue().add(rollup.getAmount()));
+            }
+        }
+        
+        OrderAnalyticsDTO dto = new OrderAnalyticsDTO();
+        dto.setFrom(from);
+        dto.setTo(to);
+        dto.setOrdersByStatus(byStatus);
+        dto.setOrdersByPaymentStatus(byPaymentStatus);
+        dto.setDaily(new ArrayList<>(days.values()));
+        dto.setOrders(days.values().stream().mapToLong(OrderAnalyticsDTO.Day::getOrders).sum());
+        dto.setUnits(days.values().stream().mapToLong(OrderAnalyticsDTO.Day::getUnits).sum());
+        dto.setRevenue(days.values().stream().map(OrderAnalyticsDTO.Day::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add));
+        return dto;
+    }
+    
+    /**
+     * Builds rollups from the order history when the table is still empty,
+     * i.e. the first time this version runs against an existing database.
+     */
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (orderRollupRepository.count() > 0) {
+            return;
+        }
+        int rows = jdbcTemplate.update(String.format(REBUILD_ORDERS_SQL, "0", ""), OrderRollup.Dimension.ALL.name());
+        rows += jdbcTemplate.update(String.format(REBUILD_ORDERS_SQL, "o.school_id", "o.school_id, "), OrderRollup.Dimension.SCHOOL.name());
+        rows += jdbcTemplate.update(REBUILD_PUBLISHERS_SQL, OrderRollup.Dimension.PUBLISHER.name());
+        if (rows > 0) {
+            log.info("Built {} order rollup rows from order history", rows);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.CreateOrderRequest;
+import com.educonnect.dto.CursorPage;
+import com.educonnect.dto.OrderDTO;
+import com.educonnect.dto.OrderItemRequest;
+import com.educonnect.dto.PublisherOrderDTO;
+import com.educonnect.events.OrderChangedEvent;
+import com.educonnect.exceptions.ResourceNotFoundException;
+import com.educonnect.models.Book;
+import com.educonnect.models.Order;
+import com.educonnect.models.OutboxEvent;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.repositories.OrderItemRepository;
+import com.educonnect.repositories.OrderRepository;
+import com.educonnect.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Places orders. All referenced books are loaded with one IN query, titles
+ * and prices are snapshotted into the items, and the items are written with
+ * a single batched JDBC insert, so an order costs the same few round trips
+ * whether it has 3 lines or 300.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderService {
+    
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (order_id, book_id, publisher_id, book_title, quantity, price) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderRollupService orderRollupService;
+    private final OutboxService outboxService;
+    private final StockService stockService;
+    private final QuoteService quoteService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    /**
+     * Stock is reserved before the order transaction starts, in one batch of
+     * short statements (StockService.reserveAll), so a popular title's stock
+     * rows are never locked while the rest of the order is written. If the
+     * order then fails, the units are put back.
+     * <p>
+     * The reservations commit on their own. Should the process die after
+     * them but before the order commits, those units stay taken with no
+     * order behind them: stock can come out short, never oversold. There is
+     * no record of the levels publishers set to reconcile against, so the
+     * publisher corrects it with a new stock level.
+     */
+    public OrderDTO createOrder(CreateOrderRequest request, UserPrincipal school) {
+        boolean hasItems = request.getItems() != null && !request.getItems().isEmpty();
+        if (hasItems == (request.getQuote() != null)) {
+            throw new IllegalArgumentException("Order must contain either items or a quote");
+        }
+        List<OrderDTO.Item> items = hasItems ? priceItems(request.getItems()) : quotedItems(request.getQuote(), school);
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderDTO.Item item : items) {
+            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        
+        Map<Long, Integer> reserved = stockService.reserveAll(quantitiesByBook(items));
+        try {
+            BigDecimal orderTotal = total;
+            return transactionTemplate.execute(status -> saveOrder(school, request.getPaymentMethod(), orderTotal, items));
+        } catch (RuntimeException e) {
+            releaseStock(reserved);
+            throw e;
+        }
+    }
+    
+    private List<OrderDTO.Item> priceItems(List<OrderItemRequest> requested) {
+        // Lines for the same book are merged, keeping the order they were first listed in
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest item : requested) {
+            quantities.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+        
+        Map<Long, Book> books = bookRepository.findAllById(quantities.keySet()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<OrderDTO.Item> items = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Book book = books.get(line.getKey());
+            if (book == null) {
+                throw new ResourceNotFoundException("Book not found with id: " + line.getKey());
+            }
+            items.add(new OrderDTO.Item(null, book.getId(), book.getPublisherId(), book.getTitle(),
+                    line.getValue(), book.getPrice()));
+        }
+        return items;
+    }
+    
+    // Quoted prices stand; only check that no quoted book has been deleted since
+    private List<OrderDTO.Item> quotedItems(String quote, UserPrincipal school) {
+        List<OrderDTO.Item> items = quoteService.redeem(quote, school);
+        Set<Long> bookIds = items.stream().map(OrderDTO.Item::getBookId).collect(Collectors.toSet());
+        Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(bookIds));
+        for (Long bookId : bookIds) {
+            if (!existing.contains(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+        }
+        return items;
+    }
+    
+    private OrderDTO saveOrder(UserPrincipal school, String paymentMethod, BigDecimal total, List<OrderDTO.Item> items) {
+        Order order = new Order();
+        order.setSchoolId(school.getId());
+        order.setSchoolName(school.getDisplayName());
+        order.setTotal(total);
+        order.setPaymentMethod(paymentMethod);
+        Order savedOrder = orderRepository.save(order);
+        
+        insertItems(savedOrder.getId(), items);
+        OrderDTO dto = mapToDTO(savedOrder, items);
+        publishChange(new OrderChangedEvent(dto, OrderChangedEvent.ChangeType.CREATED, null, null));
+        return dto;
+    }
+    
+    private void releaseStock(Map<Long, Integer> reserved) {
+        try {
+            stockService.releaseAll(reserved);
+        } catch (RuntimeException e) {
+            log.error("Could not put back stock {}", reserved, e);
+        }
+    }
+    
+    @Transactional
+    public OrderDTO updateOrderStatus(Long id, Order.OrderStatus status, UserPrincipal user) {
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (!user.isAdmin() && !orderItemRepository.existsByOrderIdAndPublisherId(id, user.getId())) {
+            throw new AccessDeniedException("Only publishers with books in this order can update it");
+        }
+        Order.OrderStatus previousStatus = order.getStatus();
+        order.setStatus(status);
+        Order updatedOrder = orderRepository.save(order);
+        
+        List<OrderDTO.Item> items = loadItems(id);
+        if ((status == Order.OrderStatus.CANCELLED) != (previousStatus == Order.OrderStatus.CANCELLED)) {
+            adjustStock(items, status == Order.OrderStatus.CANCELLED);
+        }
+        OrderDTO dto = mapToDTO(updatedOrder, items);
+        publishChange(new OrderChangedEvent(dto, OrderChangedEvent.ChangeType.STATUS_CHANGED,
+                previousStatus, updatedOrder.getPaymentStatus()));
+        return dto;
+    }
+    
+    @Transactional
+    public OrderDTO updatePaymentStatus(Long id, Order.PaymentStatus paymentStatus) {
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Order.PaymentStatus previousPaymentStatus = order.getPaymentStatus();
+        order.setPaymentStatus(paymentStatus);
+        Order updatedOrder = orderRepository.save(order);
+        
+        OrderDTO dto = mapToDTO(updatedOrder, loadItems(id));
+        publishChange(new OrderChangedEvent(dto, OrderChangedEvent.ChangeType.PAYMENT_CHANGED,
+                updatedOrder.getStatus(), previousPaymentStatus));
+        return dto;
+    }
+    
+    // Cancelling puts the units back; reinstating a cancelled order takes them again, or fails
+    private void adjustStock(List<OrderDTO.Item> items, boolean release) {
+        if (release) {
+            stockService.releaseAll(quantitiesByBook(items));
+        } else {
+            stockService.reserveAll(quantitiesByBook(items));
+        }
+    }
+    
+    private static Map<Long, Integer> quantitiesByBook(List<OrderDTO.Item> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderDTO.Item item : items) {
+            quantities.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+    
+    // In-process listeners see the change right away; the outbox row carries it to slower consumers
+    private void publishChange(OrderChangedEvent event) {
+        eventPublisher.publishEvent(event);
+        
+        OrderDTO order = event.getOrder();
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("schoolId", order.getSchoolId());
+        payload.put("total", order.getTotal());
+        payload.put("status", order.getStatus());
+        payload.put("previousStatus", event.getPreviousStatus());
+        payload.put("paymentStatus", order.getPaymentStatus());
+        payload.put("previousPaymentStatus", event.getPreviousPaymentStatus());
+        outboxService.append(OutboxEvent.AGGREGATE_ORDER, order.getId(), "ORDER_" + event.getType().name(), payload);
+    }
+    
+    private List<OrderDTO.Item> loadItems(Long orderId) {
+        return orderItemRepository.findByOrderId(orderId).stream()
+                .map(item -> new OrderDTO.Item(item.getId(), item.getBookId(), item.getPublisherId(),
+                        item.getBookTitle(), item.getQuantity(), item.getPrice()))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Orders containing the publisher's books, newest first, with quantity
+     * and subtotal of that publisher's lines. Totals come from the covering
+     * index on order_items; the page's orders are then fetched by primary key.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PublisherOrderDTO> getPublisherOrders(Long publisherId, String cursor, int size) {
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : CursorPage.decodeIdCursor(cursor);
+        List<Object[]> rows = orderItemRepository.findPublisherOrderTotals(publisherId, beforeId, Limit.of(size + 1));
+        CursorPage<Object[]> page = CursorPage.of(rows, size, Function.identity(), row -> row[0].toString());
+        
+        List<Long> orderIds = page.getItems().stream()
+                .map(row -> (Long) row[0])
+                .collect(Collectors.toList());
+        Map<Long, Order> orders = orderRepository.findAllById(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<PublisherOrderDTO> items = new ArrayList<>(orderIds.size());
+        for (Object[] row : page.getItems()) {
+            Order order = orders.get((Long) row[0]);
+            items.add(new PublisherOrderDTO(order.getId(), order.getSchoolId(), order.getSchoolName(),
+                    order.getStatus(), order.getPaymentStatus(), order.getCreatedAt(),
+                    ((Number) row[1]).longValue(), (BigDecimal) row[2]));
+        }
+        return new CursorPage<>(items, page.getNextCursor(), page.isHasMore());
+    }
+    
+    /**
+     * Brings data written by older versions up to date once, at startup:
+     * items get their publisher id from the book, then rollups are built
+     * from the order history if there are none yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = orderItemRepository.backfillPublisherIds();
+        if (updated > 0) {
+            log.info("Backfilled publisher id on {} order items", updated);
+        }
+        orderRollupService.rebuildIfEmpty();
+    }
+    
+    private void insertItems(Long orderId, List<OrderDTO.Item> items) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_ITEM_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (OrderDTO.Item item : items) {
+                    statement.setLong(1, orderId);
+                    statement.setLong(2, item.getBookId());
+                    statement.setLong(3, item.getPublisherId());
+                    statement.setString(4, item.getBookTitle());
+                    statement.setInt(5, item.getQuantity());
+                    statement.setBigDecimal(6, item.getPrice());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; i < items.size() && keys.next(); i++) {
+                        items.get(i).setId(keys.getLong(1));
+                    }
+                }
+                return null;
+            }
+        });
+    }
+    
+    private OrderDTO mapToDTO(Order order, List<OrderDTO.Item> items) {
+        OrderDTO dto = new OrderDTO();
+        dto.setId(order.getId());
+        dto.setSchoolId(order.getSchoolId());
+        dto.setSchoolName(order.getSchoolName());
+        dto.setTotal(order.getTotal());
+        dto.setStatus(order.getStatus());
+        dto.setPaymentStatus(order.getPaymentStatus());
+        dto.setPaymentMethod(order.getPaymentMethod());
+        dto.setCreatedAt(order.getCreatedAt());
+        dto.setItems(items);
+        return dto;
+    }
+}
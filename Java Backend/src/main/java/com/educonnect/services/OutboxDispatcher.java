@@ -0,0 +1,112 @@
+package com.educonnect.services;
+
+import com.educonnect.events.OutboxEventHandler;
+import com.educonnect.models.OutboxEvent;
+import com.educonnect.repositories.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drains the outbox in the background: due events are handed to every
+ * handler that supports them, oldest first. A failed event is retried with
+ * exponential backoff and holds back later events of the same aggregate;
+ * after max-attempts it is marked FAILED and left for inspection.
+ * Runs on the single scheduler thread, like the other in-process workers.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    
+    private static final int MAX_ERROR_LENGTH = 1000;
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler> handlers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+    
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxEventHandler> handlers,
+                            @Value("${outbox.batch-size}") int batchSize,
+                            @Value("${outbox.max-attempts}") int maxAttempts,
+                            @Value("${outbox.retry-backoff}") Duration retryBackoff,
+                            @Value("${outbox.retention}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.poll-interval}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = outboxEventRepository.findDue(now, Limit.of(batchSize));
+        List<Long> processed = new ArrayList<>(batch.size());
+        // Aggregates with an event that failed in this run; their later events must wait
+        Set<String> blocked = new HashSet<>();
+        
+        for (OutboxEvent event : batch) {
+            String aggregate = event.getAggregateType() + ':' + event.getAggregateId();
+            if (blocked.contains(aggregate)) {
+                continue;
+            }
+            try {
+                for (OutboxEventHandler handler : handlers) {
+                    if (handler.supports(event.getEventType())) {
+                        handler.handle(event);
+                    }
+                }
+                processed.add(event.getId());
+            } catch (Exception e) {
+                blocked.add(aggregate);
+                recordFailure(event, e);
+            }
+        }
+        
+        if (!processed.isEmpty()) {
+            outboxEventRepository.markProcessed(processed, LocalDateTime.now());
+        }
+    }
+    
+    private void recordFailure(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        String error = e.toString();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on outbox event {} ({}) after {} attempts", event.getId(), event.getEventType(), attempts, e);
+            outboxEventRepository.markAttemptFailed(event.getId(), OutboxEvent.OutboxStatus.FAILED,
+                    attempts, event.getNextAttemptAt(), error);
+        } else {
+            // 1x, 2x, 4x ... the base backoff, capped at 2^10
+            Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 10));
+            log.warn("Outbox event {} ({}) failed, attempt {} of {}, retrying in {}",
+                    event.getId(), event.getEventType(), attempts, maxAttempts, delay, e);
+            outboxEventRepository.markAttemptFailed(event.getId(), OutboxEvent.OutboxStatus.PENDING,
+                    attempts, LocalDateTime.now().plus(delay), error);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval}", initialDelayString = "${outbox.cleanup-interval}")
+    public void deleteProcessed() {
+        int deleted = outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} processed outbox events", deleted);
+        }
+    }
+}
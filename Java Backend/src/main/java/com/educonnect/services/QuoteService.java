@@ -0,0 +1,174 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.OrderDTO;
+import com.educonnect.dto.QuoteDTO;
+import com.educonnect.dto.QuoteItemRequest;
+import com.educonnect.dto.QuoteRequest;
+import com.educonnect.models.Book;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.CompressionCodecs;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.SecretKey;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Prices procurement lists. However long the list, it costs one query that
+ * finds the books by id or ISBN together with their stock. The returned quote
+ * is a signed, compressed JWT carrying the priced lines, so an order placed
+ * from it needs no catalog lookup and keeps the quoted prices.
+ */
+@Service
+public class QuoteService {
+    
+    private static final String CLAIM_SCHOOL_ID = "sid";
+    // [bookId, quantity, unit price, publisherId, title] per line
+    private static final String CLAIM_LINES = "lines";
+    
+    private final BookRepository bookRepository;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Duration ttl;
+    
+    public QuoteService(BookRepository bookRepository,
+                        @Value("${jwt.secret}") String jwtSecret,
+                        @Value("${quote.ttl}") Duration ttl) {
+        this.bookRepository = bookRepository;
+        // A key of its own, so a quote can never pass as an access token or the other way round
+        this.key = Keys.hmacShaKeyFor(sha512("order-quote:" + jwtSecret));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.ttl = ttl;
+    }
+    
+    @Transactional(readOnly = true)
+    public QuoteDTO createQuote(QuoteRequest request, UserPrincipal school) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> isbns = new HashSet<>();
+        for (QuoteItemRequest item : request.getItems()) {
+            boolean hasIsbn = item.getIsbn() != null && !item.getIsbn().isBlank();
+            if ((item.getBookId() != null) == hasIsbn) {
+                throw new IllegalArgumentException("Each item needs either a bookId or an isbn");
+            }
+            if (hasIsbn) {
+                isbns.add(item.getIsbn().trim());
+            } else {
+                ids.add(item.getBookId());
+            }
+        }
+        
+        Map<Long, Book> booksById = new HashMap<>();
+        Map<String, Book> booksByIsbn = new HashMap<>();
+        Map<Long, Long> available = new HashMap<>();
+        for (Object[] row : bookRepository.findWithStockByIdInOrIsbnIn(ids, isbns)) {
+            Book book = (Book) row[0];
+            booksById.put(book.getId(), book);
+            booksByIsbn.put(book.getIsbn(), book);
+            if (row[1] != null) {
+                available.put(book.getId(), ((Number) row[1]).longValue());
+            }
+        }
+        
+        // Lines for the same book are merged, keeping the order they were first listed in
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, Book> books = new HashMap<>();
+        List<String> unresolved = new ArrayList<>();
+        for (QuoteItemRequest item : request.getItems()) {
+            Book book = item.getBookId() != null ? booksById.get(item.getBookId()) : booksByIsbn.get(item.getIsbn().trim());
+            if (book == null) {
+                unresolved.add(item.getBookId() != null ? String.valueOf(item.getBookId()) : item.getIsbn());
+                continue;
+            }
+            books.put(book.getId(), book);
+            quantities.merge(book.getId(), item.getQuantity(), Integer::sum);
+        }
+        
+        Map<Long, QuoteDTO.PublisherGroup> groups = new LinkedHashMap<>();
+        List<List<Object>> signedLines = new ArrayList<>(quantities.size());
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Book book = books.get(entry.getKey());
+            int quantity = entry.getValue();
+            BigDecimal lineTotal = book.getPrice().multiply(BigDecimal.valueOf(quantity));
+            Long stock = available.get(book.getId());
+            
+            QuoteDTO.PublisherGroup group = groups.computeIfAbsent(book.getPublisherId(), publisherId ->
+                    new QuoteDTO.PublisherGroup(publisherId, book.getPublisherName(), new ArrayList<>(), BigDecimal.ZERO));
+            group.getLines().add(new QuoteDTO.Line(book.getId(), book.getIsbn(), book.getTitle(), quantity,
+                    book.getPrice(), lineTotal, stock, stock == null || stock >= quantity));
+            group.setSubtotal(group.getSubtotal().add(lineTotal));
+            total = total.add(lineTotal);
+            signedLines.add(List.of(book.getId(), quantity, book.getPrice().toPlainString(),
+                    book.getPublisherId(), book.getTitle()));
+        }
+        
+        QuoteDTO dto = new QuoteDTO();
+        dto.setPublishers(new ArrayList<>(groups.values()));
+        dto.setTotal(total);
+        dto.setUnresolved(unresolved);
+        if (!signedLines.isEmpty()) {
+            Date expiresAt = new Date(System.currentTimeMillis() + ttl.toMillis());
+            dto.setQuote(Jwts.builder()
+                    .claim(CLAIM_SCHOOL_ID, school.getId())
+                    .claim(CLAIM_LINES, signedLines)
+                    .setExpiration(expiresAt)
+                    .compressWith(CompressionCodecs.DEFLATE)
+                    .signWith(key, SignatureAlgorithm.HS512)
+                    .compact());
+            dto.setExpiresAt(LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()));
+        }
+        return dto;
+    }
+    
+    /**
+     * The order lines of a quote issued to {@code school}, at the quoted
+     * prices. Throws IllegalArgumentException for forged, expired or foreign
+     * quotes.
+     */
+    public List<OrderDTO.Item> redeem(String quote, UserPrincipal school) {
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(quote).getBody();
+        } catch (ExpiredJwtException e) {
+            throw new IllegalArgumentException("Quote has expired, please request a new one");
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid quote");
+        }
+        if (((Number) claims.get(CLAIM_SCHOOL_ID)).longValue() != school.getId()) {
+            throw new IllegalArgumentException("Quote was issued to another school");
+        }
+        
+        List<?> lines = claims.get(CLAIM_LINES, List.class);
+        List<OrderDTO.Item> items = new ArrayList<>(lines.size());
+        for (Object entry : lines) {
+            List<?> line = (List<?>) entry;
+            items.add(new OrderDTO.Item(null, ((Number) line.get(0)).longValue(), ((Number) line.get(3)).longValue(),
+                    (String) line.get(4), ((Number) line.get(1)).intValue(), new BigDecimal((String) line.get(2))));
+        }
+        return items;
+    }
+    
+    private static byte[] sha512(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-512").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-512 not available", e);
+        }
+    }
+}
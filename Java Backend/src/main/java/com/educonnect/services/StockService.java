@@ -0,0 +1,226 @@
+package com.educonnect.services;
+
+import com.educonnect.events.BookChangedEvent;
+import com.educonnect.exceptions.InsufficientStockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock levels in book_stock, striped so that orders for one popular title
+ * do not queue on a single row. A reservation is one conditional UPDATE on a
+ * random stripe ({@code quantity >= ?}), so it can never oversell and never
+ * reads before it writes. Only when that stripe is short does it fall back
+ * to locking all of the book's stripes in stripe order, taking the units
+ * from their total and spreading the rest evenly again.
+ */
+@Service
+public class StockService {
+    
+    private static final String TAKE_SQL =
+            "UPDATE book_stock SET quantity = quantity - ? WHERE book_id = ? AND stripe = ? AND quantity >= ?";
+    private static final String PUT_BACK_SQL =
+            "UPDATE book_stock SET quantity = quantity + ? WHERE book_id = ? AND stripe = ?";
+    private static final String LOCK_SQL =
+            "SELECT quantity FROM book_stock WHERE book_id = ? ORDER BY stripe FOR UPDATE";
+    private static final String SET_SQL =
+            "UPDATE book_stock SET quantity = ? WHERE book_id = ? AND stripe = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO book_stock (book_id, stripe, quantity) VALUES (?, ?, ?)";
+    private static final String DELETE_SQL =
+            "DELETE FROM book_stock WHERE book_id = ?";
+    // Stripe 0 exists for every tracked book, so this is one primary key lookup per id
+    private static final String TRACKED_SQL =
+            "SELECT book_id FROM book_stock WHERE stripe = 0 AND book_id IN (%s)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+    
+    public StockService(JdbcTemplate jdbcTemplate,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${catalog.stock.stripes}") int stripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stripes = stripes;
+    }
+    
+    /**
+     * Units on hand, or null when the book's stock is not tracked.
+     */
+    public Long getAvailable(Long bookId) {
+        List<Long> row = jdbcTemplate.query("SELECT COUNT(*), SUM(quantity) FROM book_stock WHERE book_id = ?",
+                (rs, rowNum) -> rs.getLong(1) == 0 ? null : rs.getLong(2), bookId);
+        return row.get(0);
+    }
+    
+    /**
+     * Replaces the book's stock level, which also starts tracking it.
+     */
+    @Transactional
+    public void setStock(Long bookId, int quantity) {
+        jdbcTemplate.update(DELETE_SQL, bookId);
+        List<Object[]> rows = new ArrayList<>(stripes);
+        int[] shares = split(quantity, stripes);
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            rows.add(new Object[]{bookId, stripe, shares[stripe]});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+    
+    /**
+     * Takes {@code quantity} units of the book, or throws
+     * InsufficientStockException. Books that are not tracked always succeed.
+     * <p>
+     * Called outside a transaction, every statement commits on its own and
+     * holds its row lock only for that statement, which is how orders use it
+     * (through {@link #reserveAll}).
+     * Inside a transaction the locks are held until commit, so the single
+     * stripe attempt is skipped and the stripes are locked in order, which
+     * keeps callers that touch several books (in book id order) deadlock-free.
+     */
+    public void reserve(Long bookId, int quantity) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            int stripe = ThreadLocalRandom.current().nextInt(stripes);
+            if (jdbcTemplate.update(TAKE_SQL, quantity, bookId, stripe, quantity) == 1) {
+                return;
+            }
+        }
+        if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> reserveAcrossStripes(bookId, quantity)))) {
+            throw new InsufficientStockException("Not enough stock for book " + bookId);
+        }
+    }
+    
+    /**
+     * Takes the units of several books at once, or throws
+     * InsufficientStockException with nothing taken. Returns the quantities
+     * of the tracked books, which are the ones a later {@link #releaseAll}
+     * needs to put back.
+     * <p>
+     * One query finds the tracked books and untracked ones cost nothing
+     * more. Outside a transaction the single stripe attempts go out as one
+     * JDBC batch, each statement still committing on its own, and only the
+     * books whose stripe was short fall back to {@link #reserve}'s locking
+     * path. So a large order costs two round trips plus one per short book.
+     */
+    public Map<Long, Integer> reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> tracked = new TreeMap<>();
+        for (Long bookId : trackedBooks(quantities.keySet())) {
+            tracked.put(bookId, quantities.get(bookId));
+        }
+        
+        Map<Long, Integer> shortStripes = new TreeMap<>(tracked);
+        Map<Long, Integer> taken = new TreeMap<>();
+        if (!tracked.isEmpty() && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<Map.Entry<Long, Integer>> lines = new ArrayList<>(tracked.entrySet());
+            List<Object[]> rows = new ArrayList<>(lines.size());
+            for (Map.Entry<Long, Integer> line : lines) {
+                int stripe = ThreadLocalRandom.current().nextInt(stripes);
+                rows.add(new Object[]{line.getValue(), line.getKey(), stripe, line.getValue()});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(TAKE_SQL, rows);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 1) {
+                    taken.put(lines.get(i).getKey(), lines.get(i).getValue());
+                    shortStripes.remove(lines.get(i).getKey());
+                }
+            }
+        }
+        
+        try {
+            // In book id order, so callers inside a transaction take the stripe locks deadlock-free
+            for (Map.Entry<Long, Integer> line : shortStripes.entrySet()) {
+                if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> reserveAcrossStripes(line.getKey(), line.getValue())))) {
+                    throw new InsufficientStockException("Not enough stock for book " + line.getKey());
+                }
+                taken.put(line.getKey(), line.getValue());
+            }
+        } catch (RuntimeException e) {
+            releaseAll(taken);
+            throw e;
+        }
+        return tracked;
+    }
+    
+    private boolean reserveAcrossStripes(Long bookId, int quantity) {
+        List<Integer> quantities = jdbcTemplate.queryForList(LOCK_SQL, Integer.class, bookId);
+        if (quantities.isEmpty()) {
+            return true;
+        }
+        long available = quantities.stream().mapToLong(Integer::longValue).sum();
+        if (available < quantity) {
+            return false;
+        }
+        
+        // Rebalance, so the next reservations find enough on whichever stripe they pick
+        int[] shares = split((int) (available - quantity), quantities.size());
+        List<Object[]> rows = new ArrayList<>(shares.length);
+        for (int stripe = 0; stripe < shares.length; stripe++) {
+            rows.add(new Object[]{shares[stripe], bookId, stripe});
+        }
+        jdbcTemplate.batchUpdate(SET_SQL, rows);
+        return true;
+    }
+    
+    /**
+     * Puts back units taken by {@link #reserveAll} or {@link #reserve}, e.g.
+     * when an order is cancelled or could not be saved. One batch for all
+     * books; untracked books are skipped.
+     */
+    public void releaseAll(Map<Long, Integer> quantities) {
+        List<Long> bookIds = new ArrayList<>(trackedBooks(quantities.keySet()));
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(bookIds.size());
+        for (Long bookId : bookIds) {
+            rows.add(new Object[]{quantities.get(bookId), bookId, ThreadLocalRandom.current().nextInt(stripes)});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(PUT_BACK_SQL, rows);
+        // A miss means the book predates a raise of catalog.stock.stripes; stripe 0 always exists
+        List<Object[]> retries = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                retries.add(new Object[]{rows.get(i)[0], rows.get(i)[1], 0});
+            }
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(PUT_BACK_SQL, retries);
+        }
+    }
+    
+    private List<Long> trackedBooks(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return List.of();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(bookIds.size(), "?"));
+        return jdbcTemplate.queryForList(String.format(TRACKED_SQL, placeholders), Long.class, bookIds.toArray());
+    }
+    
+    @EventListener
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.getType() == BookChangedEvent.ChangeType.DELETED) {
+            jdbcTemplate.update(DELETE_SQL, event.getBook().getId());
+        }
+    }
+    
+    private static int[] split(int quantity, int parts) {
+        int[] shares = new int[parts];
+        for (int i = 0; i < parts; i++) {
+            shares[i] = quantity / parts + (i < quantity % parts ? 1 : 0);
+        }
+        return shares;
+    }
+}
@@ -1,27 +1,49 @@
 package com.educonnect.services;
 
+import com.educonnect.dto.CursorPage;
 import com.educonnect.dto.RegisterRequest;
+import com.educonnect.dto.ResourceVersion;
 import com.educonnect.dto.UserDTO;
+import com.educonnect.dto.UserSummaryDTO;
+import com.educonnect.events.UserChangedEvent;
 import com.educonnect.exceptions.ResourceNotFoundException;
+import com.educonnect.models.OutboxEvent;
 import com.educonnect.models.User;
 import com.educonnect.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     
+    public static final String USER_STATUS_CHANGED = "USER_STATUS_CHANGED";
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public UserDTO createUser(RegisterRequest request) {
+        return mapToDTO(registerUser(request));
+    }
+    
+    /**
+     * Creates the user and returns the saved entity, for callers that need
+     * more than the DTO (e.g. to issue a token).
+     */
+    @Transactional
+    public User registerUser(RegisterRequest request) {
         // Check if email already exists
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new IllegalArgumentException("Email already registered");
@@ -44,7 +66,8 @@ public class UserService {
         }
         
         User savedUser = userRepository.save(user);
-        return mapToDTO(savedUser);
+        eventPublisher.publishEvent(new UserChangedEvent(savedUser, UserChangedEvent.ChangeType.CREATED));
+        return savedUser;
     }
     
     public UserDTO getUserById(Long id) {
@@ -53,36 +76,50 @@ public class UserService {
         return mapToDTO(user);
     }
     
+    public ResourceVersion getUserVersion(Long id) {
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+    
     public User findByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
     }
     
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<UserSummaryDTO> getAllUsers(String cursor, int size) {
+        List<UserSummaryDTO> rows = userRepository.findSummariesAfter(
+                CursorPage.decodeIdCursor(cursor), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Function.identity(), user -> user.getId().toString());
     }
     
-    public List<UserDTO> getPublishers() {
-        return userRepository.findByRole(User.UserRole.PUBLISHER).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public List<UserSummaryDTO> getPublishers() {
+        return userRepository.findSummariesByRole(User.UserRole.PUBLISHER);
     }
     
-    public List<UserDTO> getApprovedPublishers() {
-        return userRepository.findByRoleAndStatus(User.UserRole.PUBLISHER, User.UserStatus.APPROVED)
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<UserSummaryDTO> getApprovedPublishers(String cursor, int size) {
+        List<UserSummaryDTO> rows = userRepository.findSummariesByRoleAndStatusAfter(
+                User.UserRole.PUBLISHER, User.UserStatus.APPROVED, CursorPage.decodeIdCursor(cursor), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Function.identity(), user -> user.getId().toString());
     }
     
     @Transactional
     public UserDTO updateUserStatus(Long id, User.UserStatus status) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User.UserStatus previousStatus = user.getStatus();
         user.setStatus(status);
-        User updatedUser = userRepository.save(user);
+        // Tokens carry the status they were issued with, so revoke them
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User updatedUser = userRepository.saveAndFlush(user);
+        eventPublisher.publishEvent(new UserChangedEvent(updatedUser, UserChangedEvent.ChangeType.UPDATED));
+        
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("userId", updatedUser.getId());
+        payload.put("email", updatedUser.getEmail());
+        payload.put("name", updatedUser.getName());
+        payload.put("status", status);
+        payload.put("previousStatus", previousStatus);
+        outboxService.append(OutboxEvent.AGGREGATE_USER, updatedUser.getId(), USER_STATUS_CHANGED, payload);
         return mapToDTO(updatedUser);
     }
     
@@ -91,11 +128,12 @@ public class UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
         user.setProfileImage(imageUrl);
-        User updatedUser = userRepository.save(user);
+        User updatedUser = userRepository.saveAndFlush(user);
+        eventPublisher.publishEvent(new UserChangedEvent(updatedUser, UserChangedEvent.ChangeType.UPDATED));
         return mapToDTO(updatedUser);
     }
     
-    private UserDTO mapToDTO(User user) {
+    UserDTO mapToDTO(User user) {
         UserDTO dto = new UserDTO();
         dto.setId(user.getId());
         dto.setName(user.getName());
@@ -107,6 +145,8 @@ public class UserService {
         dto.setProfileImage(user.getProfileImage());
         dto.setStatus(user.getStatus());
         dto.setCreatedAt(user.getCreatedAt());
+        dto.setUpdatedAt(user.getUpdatedAt());
+        dto.setVersion(user.getVersion());
         return dto;
     }
 }
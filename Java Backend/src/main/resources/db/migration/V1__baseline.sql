@@ -0,0 +1,63 @@
+-- The released schema, as Hibernate (MySQL8Dialect, ddl-auto=update) created it before
+-- migrations took over. Every statement is IF NOT EXISTS, so on a database that update
+-- already built this script changes nothing; constraint names match the generated ones.
+-- Everything added since comes in the later migrations.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(120) NOT NULL,
+    email VARCHAR(120) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('ADMIN', 'PUBLISHER', 'SCHOOL') NOT NULL,
+    organization_name VARCHAR(255),
+    phone VARCHAR(50),
+    document_url VARCHAR(500),
+    profile_image VARCHAR(500),
+    status ENUM('PENDING', 'APPROVED', 'REJECTED') NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK_6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS books (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    grade VARCHAR(50) NOT NULL,
+    subject VARCHAR(100) NOT NULL,
+    author VARCHAR(150) NOT NULL,
+    isbn VARCHAR(50) NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    publisher_id BIGINT NOT NULL,
+    publisher_name VARCHAR(255),
+    description TEXT,
+    cover_image VARCHAR(500),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK_kibbepcitr0a3cpk3rfr7nihn UNIQUE (isbn),
+    CONSTRAINT FK6p74qebcvb031ogo50d7o0mau FOREIGN KEY (publisher_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    school_id BIGINT NOT NULL,
+    school_name VARCHAR(255) NOT NULL,
+    total DECIMAL(10, 2) NOT NULL,
+    status ENUM('PENDING', 'CONFIRMED', 'DELIVERED', 'CANCELLED') NOT NULL,
+    payment_status ENUM('PENDING', 'COMPLETED', 'FAILED') NOT NULL,
+    payment_method VARCHAR(50),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKmtwdty9i4aw7n843qf8bydx3a FOREIGN KEY (school_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    book_id BIGINT NOT NULL,
+    book_title VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKbioxgbv59vetrxe0ejfubep1w FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT FKi4ptndslo2pyfp9r1x0eulh9g FOREIGN KEY (book_id) REFERENCES books (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- Last-modified times and optimistic lock versions behind ETag/Last-Modified.
+-- Existing rows start at version 0 with no modification time. One column per
+-- statement, as H2 (which the tests run on) takes only one ADD per ALTER.
+ALTER TABLE users ADD COLUMN updated_at DATETIME(6);
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE books ADD COLUMN updated_at DATETIME(6);
+ALTER TABLE books ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
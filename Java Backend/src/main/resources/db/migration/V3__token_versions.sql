@@ -0,0 +1,2 @@
+-- Bumped to revoke every JWT issued to a user; 0 means never revoked.
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
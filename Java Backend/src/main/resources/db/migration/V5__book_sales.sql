@@ -0,0 +1,7 @@
+-- Units sold per book, flushed from BookSalesCounter
+CREATE TABLE book_sales (
+    book_id BIGINT NOT NULL,
+    quantity_sold BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (book_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,15 @@
+-- Per-day order totals for the analytics endpoint
+CREATE TABLE order_rollups (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    dimension ENUM('ALL', 'SCHOOL', 'PUBLISHER') NOT NULL,
+    dimension_id BIGINT NOT NULL,
+    order_date DATE NOT NULL,
+    status ENUM('PENDING', 'CONFIRMED', 'DELIVERED', 'CANCELLED') NOT NULL,
+    payment_status ENUM('PENDING', 'COMPLETED', 'FAILED') NOT NULL,
+    order_count BIGINT NOT NULL,
+    units BIGINT NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY (id),
+    -- One row per bucket; OrderRollupService upserts against it
+    CONSTRAINT uk_order_rollups_bucket UNIQUE (dimension, dimension_id, order_date, status, payment_status)
+) ENGINE = InnoDB;
@@ -0,0 +1,17 @@
+-- Order and account changes waiting to be dispatched
+CREATE TABLE outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    status ENUM('PENDING', 'PROCESSED', 'FAILED') NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at DATETIME(6) NOT NULL,
+    last_error VARCHAR(1000),
+    created_at DATETIME(6) NOT NULL,
+    processed_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_outbox_events_status_next (status, next_attempt_at),
+    INDEX idx_outbox_events_aggregate (aggregate_type, aggregate_id, status, id)
+) ENGINE = InnoDB;
@@ -0,0 +1,8 @@
+-- Stock levels, split over stripes so one popular book's orders do not queue on one row
+CREATE TABLE book_stock (
+    book_id BIGINT NOT NULL,
+    stripe INTEGER NOT NULL,
+    quantity INTEGER NOT NULL,
+    -- book_id first: every stock query filters on it
+    PRIMARY KEY (book_id, stripe)
+) ENGINE = InnoDB;
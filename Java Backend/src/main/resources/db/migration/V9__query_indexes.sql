@@ -0,0 +1,18 @@
+-- Indexes for the repository queries; InnoDB secondary indexes end in the primary
+-- key, so (a, b) also serves "WHERE a = ? AND b = ? ORDER BY id" and returns ids
+-- without touching the rows.
+
+-- BookRepository.findIdsByPublisherId and OrderItemRepository.findByOrderId need no index of
+-- their own: the indexes MySQL creates for the publisher and order foreign keys serve them.
+
+-- OrderItemRepository.sumQuantitiesByBook reads only this index; also backs the book FK
+CREATE INDEX idx_order_items_book ON order_items (book_id, order_id, quantity);
+
+-- UserRepository.findSummariesByRoleAndStatusAfter (approval queues) and findSummariesByRole
+CREATE INDEX idx_users_role_status ON users (role, status);
+
+-- UserRepository.findRevokedTokenVersions, read at startup
+CREATE INDEX idx_users_token_version ON users (token_version);
+
+-- OutboxEventRepository.deleteProcessedBefore
+CREATE INDEX idx_outbox_events_status_processed ON outbox_events (status, processed_at);
@@ -0,0 +1,131 @@
+package com.educonnect.repositories;
+
+import com.educonnect.models.OrderRollup;
+import com.educonnect.models.OutboxEvent;
+import com.educonnect.models.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs every repository query against the migrated schema on H2, captures
+ * the SQL Hibernate sends and EXPLAINs it. A query fails if any table in its
+ * plan is read in full, either as a table scan or as an index walked without
+ * a condition.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.educonnect.repositories.RepositoryQueryPlanTest$Recorder")
+@ActiveProfiles("test")
+class RepositoryQueryPlanTest {
+    
+    // Queries that read every row by design: the catalog export and the one-off book_sales seed
+    private static final Set<String> WHOLE_TABLE = Set.of("BookRepository.streamAll", "OrderItemRepository.sumQuantitiesByBook");
+    
+    // One access comment per table in an H2 plan, e.g. "/* public.books.tableScan */" or "/* public.idx_users_role_status: role = ?1 */"
+    private static final Pattern ACCESS = Pattern.compile("/\\* ([\\w.\"]+)(: [^*]+)? \\*/");
+    
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+    
+    @Autowired private BookRepository bookRepository;
+    @Autowired private OrderItemRepository orderItemRepository;
+    @Autowired private OrderRollupRepository orderRollupRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private TransactionTemplate transactionTemplate;
+    
+    public static class Recorder implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+    
+    @TestFactory
+    Stream<DynamicTest> repositoryQueriesUseIndexes() {
+        Map<String, Runnable> queries = Map.ofEntries(
+                Map.entry("BookRepository.findByIdGreaterThanOrderByIdAsc", () -> bookRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100))),
+                Map.entry("BookRepository.findSummariesAfter", () -> bookRepository.findSummariesAfter(0L, Limit.of(20))),
+                Map.entry("BookRepository.findSummariesByIdIn", () -> bookRepository.findSummariesByIdIn(List.of(1L, 2L))),
+                Map.entry("BookRepository.findIdsByPublisherId", () -> bookRepository.findIdsByPublisherId(1L)),
+                Map.entry("BookRepository.findWithStockByIdInOrIsbnIn", () -> bookRepository.findWithStockByIdInOrIsbnIn(
+                        List.of(1L, 2L), List.of("978-0", "978-1"))),
+                Map.entry("BookRepository.findIdByIsbn", () -> bookRepository.findIdByIsbn("978-0")),
+                Map.entry("BookRepository.findExistingIsbns", () -> bookRepository.findExistingIsbns(List.of("978-0", "978-1"))),
+                Map.entry("BookRepository.findExistingIds", () -> bookRepository.findExistingIds(List.of(1L, 2L))),
+                Map.entry("BookRepository.findGradesAndSubjectsByIdIn", () -> bookRepository.findGradesAndSubjectsByIdIn(List.of(1L, 2L))),
+                Map.entry("BookRepository.streamAll", () -> bookRepository.streamAll().close()),
+                Map.entry("OrderItemRepository.findByOrderId", () -> orderItemRepository.findByOrderId(1L)),
+                Map.entry("OrderItemRepository.existsByOrderIdAndPublisherId", () -> orderItemRepository.existsByOrderIdAndPublisherId(1L, 1L)),
+                Map.entry("OrderItemRepository.findPublisherOrderTotals", () -> orderItemRepository.findPublisherOrderTotals(1L, Long.MAX_VALUE, Limit.of(20))),
+                Map.entry("OrderItemRepository.backfillPublisherIds", () -> orderItemRepository.backfillPublisherIds()),
+                Map.entry("OrderItemRepository.sumQuantitiesByBook", () -> orderItemRepository.sumQuantitiesByBook()),
+                Map.entry("OrderRollupRepository.findByDimensionAndDimensionIdAndOrderDateBetweenOrderByOrderDate", () ->
+                        orderRollupRepository.findByDimensionAndDimensionIdAndOrderDateBetweenOrderByOrderDate(
+                                OrderRollup.Dimension.SCHOOL, 1L, LocalDate.now().minusDays(30), LocalDate.now())),
+                Map.entry("OutboxEventRepository.findDue", () -> outboxEventRepository.findDue(LocalDateTime.now(), Limit.of(100))),
+                Map.entry("OutboxEventRepository.markProcessed", () -> outboxEventRepository.markProcessed(List.of(1L, 2L), LocalDateTime.now())),
+                Map.entry("OutboxEventRepository.markAttemptFailed", () -> outboxEventRepository.markAttemptFailed(
+                        1L, OutboxEvent.OutboxStatus.PENDING, 1, LocalDateTime.now(), "error")),
+                Map.entry("OutboxEventRepository.deleteProcessedBefore", () -> outboxEventRepository.deleteProcessedBefore(LocalDateTime.now())),
+                Map.entry("UserRepository.findByEmail", () -> userRepository.findByEmail("school@example.com")),
+                Map.entry("UserRepository.findVersionById", () -> userRepository.findVersionById(1L)),
+                Map.entry("UserRepository.findRevokedTokenVersions", () -> userRepository.findRevokedTokenVersions()),
+                Map.entry("UserRepository.existsByEmail", () -> userRepository.existsByEmail("school@example.com")),
+                Map.entry("UserRepository.findSummariesAfter", () -> userRepository.findSummariesAfter(0L, Limit.of(20))),
+                Map.entry("UserRepository.findSummariesByRole", () -> userRepository.findSummariesByRole(User.UserRole.PUBLISHER)),
+                Map.entry("UserRepository.findSummariesByRoleAndStatusAfter", () -> userRepository.findSummariesByRoleAndStatusAfter(
+                        User.UserRole.PUBLISHER, User.UserStatus.PENDING, 0L, Limit.of(20))));
+        
+        return queries.entrySet().stream()
+                .filter(query -> !WHOLE_TABLE.contains(query.getKey()))
+                .sorted(Map.Entry.comparingByKey())
+                .map(query -> DynamicTest.dynamicTest(query.getKey(), () -> assertIndexed(query.getValue())));
+    }
+    
+    private void assertIndexed(Runnable query) {
+        List<String> sent = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            statements.clear();
+            query.run();
+            sent.addAll(statements);
+            status.setRollbackOnly();
+        });
+        assertFalse(sent.isEmpty(), "No SQL was captured");
+        
+        for (String sql : sent) {
+            // Prepared, so H2 accepts the unbound parameters
+            String plan = jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                    (rs, rowNum) -> rs.getString(1)).get(0);
+            Matcher access = ACCESS.matcher(plan);
+            while (access.find()) {
+                if (access.group(1).endsWith(".tableScan") || access.group(2) == null) {
+                    fail("Full read of " + access.group(1) + " in:\n" + plan);
+                }
+            }
+        }
+    }
+}
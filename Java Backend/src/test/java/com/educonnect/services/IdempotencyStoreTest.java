@@ -0,0 +1,94 @@
+package com.educonnect.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The store stays within idempotency.max-size once responses are stored,
+ * and never evicts a request that is still running.
+ */
+class IdempotencyStoreTest {
+    
+    private static final DataSize MAX_SIZE = DataSize.ofKilobytes(16);
+    private static final String BODY = "x".repeat(1000);
+    private static final int KEYS = 100;
+    
+    private final IdempotencyStore store = new IdempotencyStore(new ObjectMapper(), Duration.ofHours(1),
+            MAX_SIZE, DataSize.ofKilobytes(4), Duration.ofSeconds(10), new SimpleMeterRegistry());
+    
+    @Test
+    void storedResponsesAreEvictedPastMaxSize() {
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < KEYS; i++) {
+            store.execute("user", "key-" + i, i, () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.ok(BODY);
+            });
+        }
+        
+        long weightedSize = store.weightedSize();
+        assertTrue(weightedSize > 0, "Stored responses weigh nothing");
+        assertTrue(weightedSize <= MAX_SIZE.toBytes(), "Store holds " + weightedSize + " bytes");
+        
+        // Evicted keys run again; about 16 of the 100 fit
+        for (int i = 0; i < KEYS; i++) {
+            store.execute("user", "key-" + i, i, () -> {
+                runs.incrementAndGet();
+                return ResponseEntity.ok(BODY);
+            });
+        }
+        assertTrue(runs.get() > KEYS + KEYS / 2, "Only " + (runs.get() - KEYS) + " keys were evicted");
+    }
+    
+    @Test
+    void runningRequestIsNotEvicted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("user", "slow", "order", () -> {
+                    runs.incrementAndGet();
+                    await(release);
+                    return ResponseEntity.ok("created");
+                }));
+        while (runs.get() == 0) {
+            Thread.onSpinWait();
+        }
+        
+        for (int i = 0; i < KEYS; i++) {
+            store.execute("user", "key-" + i, i, () -> ResponseEntity.ok(BODY));
+        }
+        store.weightedSize();
+        
+        CompletableFuture<ResponseEntity<String>> retry = CompletableFuture.supplyAsync(() ->
+                store.execute("user", "slow", "order", () -> {
+                    runs.incrementAndGet();
+                    return ResponseEntity.ok("created twice");
+                }));
+        release.countDown();
+        
+        assertEquals("created", first.get(10, TimeUnit.SECONDS).getBody());
+        assertEquals("true", retry.get(10, TimeUnit.SECONDS).getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
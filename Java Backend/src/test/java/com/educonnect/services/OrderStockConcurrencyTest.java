@@ -0,0 +1,181 @@
+package com.educonnect.services;
+
+import com.educonnect.dto.CreateOrderRequest;
+import com.educonnect.dto.OrderItemRequest;
+import com.educonnect.exceptions.InsufficientStockException;
+import com.educonnect.models.Book;
+import com.educonnect.models.User;
+import com.educonnect.repositories.BookRepository;
+import com.educonnect.repositories.UserRepository;
+import com.educonnect.security.UserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many more concurrent orders for one book than there are units, placed
+ * through OrderService on H2. Every unit must be sold exactly once, with
+ * the short-stripe fallback and the release after a failed save both in play.
+ * Orders mixing tracked, untracked and short books take all or nothing.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class OrderStockConcurrencyTest {
+    
+    private static final int STOCK = 500;
+    private static final int ORDERS = 2000;
+    private static final int THREADS = 64;
+    
+    @Autowired private OrderService orderService;
+    @Autowired private StockService stockService;
+    @Autowired private BookRepository bookRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    
+    private UserPrincipal school;
+    private Long publisherId;
+    private Long bookId;
+    
+    @BeforeEach
+    void setUp() {
+        User publisher = userRepository.save(user(User.UserRole.PUBLISHER));
+        school = UserPrincipal.from(userRepository.save(user(User.UserRole.SCHOOL)));
+        
+        publisherId = publisher.getId();
+        bookId = bookRepository.save(book(publisherId)).getId();
+        stockService.setStock(bookId, STOCK);
+    }
+    
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(executor.submit(() -> {
+                start.await();
+                return orderService.createOrder(orderFor(bookId, 1), school);
+            }));
+        }
+        start.countDown();
+        
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        for (Future<?> order : orders) {
+            try {
+                order.get();
+                placed.incrementAndGet();
+            } catch (ExecutionException e) {
+                assertInstanceOf(InsufficientStockException.class, e.getCause());
+                rejected.incrementAndGet();
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        
+        assertEquals(STOCK, placed.get());
+        assertEquals(ORDERS - STOCK, rejected.get());
+        assertEquals(0L, stockService.getAvailable(bookId));
+        // With the sum at zero, a zero minimum means no stripe went below zero
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT MIN(quantity) FROM book_stock WHERE book_id = ?", Integer.class, bookId));
+        assertEquals(STOCK, jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM order_items WHERE book_id = ?", Integer.class, bookId));
+    }
+    
+    @Test
+    void failedOrderPutsStockBack() {
+        // No such user, so the order insert breaks its foreign key after the units were taken
+        User missing = user(User.UserRole.SCHOOL);
+        missing.setId(Long.MAX_VALUE);
+        UserPrincipal unknownSchool = UserPrincipal.from(missing);
+        
+        assertThrows(DataIntegrityViolationException.class,
+                () -> orderService.createOrder(orderFor(bookId, 3), unknownSchool));
+        assertEquals(STOCK, stockService.getAvailable(bookId));
+    }
+    
+    @Test
+    void shortBookFailsTheWholeOrder() {
+        Long untracked = bookRepository.save(book(publisherId)).getId();
+        Long scarce = bookRepository.save(book(publisherId)).getId();
+        stockService.setStock(scarce, 2);
+        
+        assertThrows(InsufficientStockException.class, () -> orderService.createOrder(
+                orderFor(Map.of(bookId, 10, untracked, 5, scarce, 3)), school));
+        assertEquals(STOCK, stockService.getAvailable(bookId));
+        assertEquals(2L, stockService.getAvailable(scarce));
+        assertNull(stockService.getAvailable(untracked));
+        
+        orderService.createOrder(orderFor(Map.of(bookId, 10, untracked, 5, scarce, 2)), school);
+        assertEquals(STOCK - 10, stockService.getAvailable(bookId));
+        assertEquals(0L, stockService.getAvailable(scarce));
+        assertNull(stockService.getAvailable(untracked));
+    }
+    
+    private static CreateOrderRequest orderFor(Long bookId, int quantity) {
+        return orderFor(Map.of(bookId, quantity));
+    }
+    
+    private static CreateOrderRequest orderFor(Map<Long, Integer> quantities) {
+        List<OrderItemRequest> items = new ArrayList<>();
+        quantities.forEach((bookId, quantity) -> {
+            OrderItemRequest item = new OrderItemRequest();
+            item.setBookId(bookId);
+            item.setQuantity(quantity);
+            items.add(item);
+        });
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setItems(items);
+        request.setPaymentMethod("M-PESA");
+        return request;
+    }
+    
+    private static Book book(Long publisherId) {
+        Book book = new Book();
+        book.setTitle("Mathematics for Grade 5");
+        book.setGrade("Grade 5");
+        book.setSubject("Mathematics");
+        book.setAuthor("Jane Doe");
+        book.setIsbn("978-" + UUID.randomUUID().toString().substring(0, 12));
+        book.setPrice(new BigDecimal("450.00"));
+        book.setPublisherId(publisherId);
+        book.setPublisherName("Publisher organization");
+        return book;
+    }
+    
+    private static User user(User.UserRole role) {
+        User user = new User();
+        user.setName(role + " user");
+        user.setEmail(UUID.randomUUID() + "@test.local");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3xvKJ1qJYkQy0Yx9tZp6Z8a");
+        user.setRole(role);
+        user.setStatus(User.UserStatus.APPROVED);
+        user.setOrganizationName(role + " organization");
+        user.setPhone("+254700000000");
+        return user;
+    }
+}
@@ -0,0 +1,72 @@
+-- The schema Hibernate 6.3 (MySQL8Dialect, ddl-auto=update) generated for the last release,
+-- before migrations took over. SchemaUpgradeTest migrates a database built from it.
+
+create table users (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    document_url varchar(500),
+    email varchar(120) not null,
+    name varchar(120) not null,
+    organization_name varchar(255),
+    password varchar(255) not null,
+    phone varchar(50),
+    profile_image varchar(500),
+    role enum ('ADMIN','PUBLISHER','SCHOOL') not null,
+    status enum ('PENDING','APPROVED','REJECTED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table books (
+    id bigint not null auto_increment,
+    author varchar(150) not null,
+    cover_image varchar(500),
+    created_at datetime(6) not null,
+    description TEXT,
+    grade varchar(50) not null,
+    isbn varchar(50) not null,
+    price decimal(10,2) not null,
+    publisher_id bigint not null,
+    publisher_name varchar(255),
+    subject varchar(100) not null,
+    title varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table orders (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    payment_method varchar(50),
+    payment_status enum ('PENDING','COMPLETED','FAILED') not null,
+    school_id bigint not null,
+    school_name varchar(255) not null,
+    status enum ('PENDING','CONFIRMED','DELIVERED','CANCELLED') not null,
+    total decimal(10,2) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table order_items (
+    id bigint not null auto_increment,
+    book_id bigint not null,
+    book_title varchar(255) not null,
+    order_id bigint not null,
+    price decimal(10,2) not null,
+    quantity integer not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table users add constraint UK_6dotkott2kjsp8vw4d0m25fb7 unique (email);
+alter table books add constraint UK_kibbepcitr0a3cpk3rfr7nihn unique (isbn);
+alter table books add constraint FK6p74qebcvb031ogo50d7o0mau foreign key (publisher_id) references users (id);
+alter table orders add constraint FKmtwdty9i4aw7n843qf8bydx3a foreign key (school_id) references users (id);
+alter table order_items add constraint FKbioxgbv59vetrxe0ejfubep1w foreign key (order_id) references orders (id);
+alter table order_items add constraint FKi4ptndslo2pyfp9r1x0eulh9g foreign key (book_id) references books (id);
+
+insert into users (id, created_at, email, name, organization_name, password, phone, role, status)
+values (1, '2025-01-10 09:00:00', 'publisher@example.com', 'Publisher', 'Longhorn', '$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3xvKJ1qJYkQy0Yx9tZp6Z8a', '+254700000001', 'PUBLISHER', 'APPROVED'),
+       (2, '2025-01-11 09:00:00', 'school@example.com', 'School', 'Nairobi Primary', '$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3xvKJ1qJYkQy0Yx9tZp6Z8a', '+254700000002', 'SCHOOL', 'APPROVED');
+insert into books (id, author, created_at, grade, isbn, price, publisher_id, publisher_name, subject, title)
+values (1, 'Jane Doe', '2025-01-12 09:00:00', 'Grade 5', '978-0000000001', 450.00, 1, 'Longhorn', 'Mathematics', 'Mathematics for Grade 5');
+insert into orders (id, created_at, payment_method, payment_status, school_id, school_name, status, total)
+values (1, '2025-02-01 09:00:00', 'M-PESA', 'COMPLETED', 2, 'Nairobi Primary', 'DELIVERED', 900.00);
+insert into order_items (id, book_id, book_title, order_id, price, quantity)
+values (1, 1, 'Mathematics for Grade 5', 1, 450.00, 2);